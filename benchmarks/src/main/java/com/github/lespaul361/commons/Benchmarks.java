@@ -0,0 +1,26 @@
+package com.github.lespaul361.commons;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler so every result shows the bytes
+ * allocated per operation. Takes the usual JMH command line options, such as
+ * a benchmark name pattern.
+ *
+ * @author Charles Hamilton
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws RunnerException,
+            CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.lespaul361.commons;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures making a {@link DisplayNotification.NotificationBuilder} and
+ * turning it into a resolved request
+ *
+ * @author Charles Hamilton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NotificationBuilderBenchmark {
+
+    private DisplayNotification.NotificationBuilder builder;
+
+    @Setup
+    public void setUp() {
+        builder = build();
+    }
+
+    /**
+     * Setting up a builder, which should do no resolving
+     */
+    @Benchmark
+    public DisplayNotification.NotificationBuilder construct() {
+        return build();
+    }
+
+    /**
+     * Resolving the theme, icon and sound of a builder
+     */
+    @Benchmark
+    public NotificationRequest toRequest() {
+        return builder.toRequest();
+    }
+
+    private static DisplayNotification.NotificationBuilder build() {
+        return new DisplayNotification.NotificationBuilder("Build finished",
+                "All tests passed")
+                .icon(DisplayNotification.MessageIconType.Warning)
+                .theme(DisplayNotification.ThemePackagePresets.Aqua)
+                .priority(NotificationPriority.High);
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.lespaul361.commons;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes from asking for a notification until the
+ * renderer has shown it. A {@link HeadlessRenderer} stands in for the
+ * windows so only the cost of the wrapper is measured.
+ *
+ * @author Charles Hamilton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class NotificationEngineBenchmark {
+
+    private NotificationEngine engine;
+    private NotificationRequest request;
+    private DisplayNotification.NotificationBuilder builder;
+
+    @Setup
+    public void setUp() {
+        // no merging or limits so every call goes all the way to the renderer
+        engine = new NotificationEngine.Builder()
+                .renderer(new HeadlessRenderer())
+                .coalesceWindow(0)
+                .ratePerSecond(0)
+                .maxVisible(Integer.MAX_VALUE)
+                .build();
+        request = new NotificationRequest("Build finished", "All tests passed",
+                null, null, null, null, null, null, null, null);
+        builder = new DisplayNotification.NotificationBuilder("Build finished",
+                "All tests passed")
+                .icon(DisplayNotification.MessageIconType.Exclamation)
+                .theme(DisplayNotification.ThemePackagePresets.CleanDark);
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    /**
+     * A resolved notification through the engine and renderer
+     */
+    @Benchmark
+    public NotificationHandle show() {
+        NotificationHandle handle = engine.show(request);
+        handle.close();
+        return handle;
+    }
+
+    /**
+     * A builder through resolution, the engine and the renderer
+     */
+    @Benchmark
+    public NotificationHandle showAsync() {
+        NotificationHandle handle = engine.showAsync(builder).join();
+        handle.close();
+        return handle;
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.lespaul361.commons;
+
+import com.theme.ThemePackage;
+import java.util.concurrent.TimeUnit;
+import javax.swing.ImageIcon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures looking up icons and themes, which is what
+ * <code>getImageIcon</code> and <code>getThemePackage</code> in
+ * {@link DisplayNotification} do for every notification
+ *
+ * @author Charles Hamilton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ResourceBenchmark {
+
+    @Param({"Exclamation", "Error"})
+    public DisplayNotification.MessageIconType iconType;
+
+    @Param({"CleanDark", "Aqua"})
+    public DisplayNotification.ThemePackagePresets preset;
+
+    @Benchmark
+    public ImageIcon getImageIcon() {
+        return IconRegistry.getDefault().getIcon(iconType);
+    }
+
+    @Benchmark
+    public ThemePackage getThemePackage() {
+        return ThemeRegistry.getDefault().getTheme(preset);
+    }
+}
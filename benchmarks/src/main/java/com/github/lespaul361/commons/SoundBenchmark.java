@@ -0,0 +1,63 @@
+package com.github.lespaul361.commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures decoding the default sound, finding it in the cache and starting
+ * it through {@link SoundPlayer}. On a machine without a sound device
+ * <code>playSound</code> measures the failure path instead.
+ *
+ * @author Charles Hamilton
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SoundBenchmark {
+
+    private byte[] wav;
+    private DecodedSound sound;
+
+    @Setup
+    public void setUp() throws IOException, UnsupportedAudioFileException {
+        try (InputStream in = DisplayNotification.class.getResourceAsStream(
+                DisplayNotification.DEFAULT_SOUND)) {
+            wav = IOUtils.toByteArray(in);
+        }
+        sound = SoundCache.decode(new ByteArrayInputStream(wav));
+    }
+
+    @Benchmark
+    public DecodedSound decode() throws IOException,
+            UnsupportedAudioFileException {
+        return SoundCache.decode(new ByteArrayInputStream(wav));
+    }
+
+    @Benchmark
+    public DecodedSound cached() throws IOException,
+            UnsupportedAudioFileException {
+        return SoundCache.getDefault().getResource(DisplayNotification.DEFAULT_SOUND);
+    }
+
+    @Benchmark
+    public boolean playSound() {
+        return SoundPlayer.playSound(sound);
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.lespaul361.commons;
+
+import com.utils.Time;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.swing.ImageIcon;
+
+/**
+ * A notification that has been accepted by a {@link NotificationEngine} and
+ * is waiting to be shown or is on screen. It is guarded by this object.
+ *
+ * @author Charles Hamilton
+ */
+final class ActiveNotification {
+
+    private final NotificationRequest request;
+    private final String coalesceKey;
+    private final boolean silent;
+    private final NotificationHandle handle;
+    private final long created;
+    private String title;
+    private String subtitle;
+    private Time time;
+    private ImageIcon icon;
+    private boolean refreshScheduled = false;
+    private long lastRefresh;
+    private int count = 1;
+    private long lastSeen;
+    private boolean closed = false;
+    private boolean admitted = false;
+    private ScheduledFuture<?> removal = null;
+    private boolean opened = false;
+    private long journalId = 0;
+
+    ActiveNotification(NotificationEngine engine, NotificationRequest request,
+            String coalesceKey, boolean silent) {
+        this.request = request;
+        this.coalesceKey = coalesceKey;
+        this.silent = silent;
+        this.handle = new NotificationHandle(engine, this);
+        this.title = request.getTitle();
+        this.subtitle = request.getSubtitle();
+        this.time = request.getTime();
+        this.icon = request.getIcon();
+        this.created = System.nanoTime();
+        this.lastSeen = created;
+        // long enough ago that the first repaint is not held back
+        this.lastRefresh = created - TimeUnit.DAYS.toNanos(1);
+    }
+
+    /**
+     * The id of this notification in the {@link NotificationJournal}, or 0 if
+     * it is not journaled
+     */
+    synchronized long getJournalId() {
+        return journalId;
+    }
+
+    synchronized void setJournalId(long journalId) {
+        this.journalId = journalId;
+    }
+
+    NotificationRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * When this notification was asked for, from <code>System.nanoTime()</code>
+     */
+    long getCreated() {
+        return created;
+    }
+
+    NotificationHandle getHandle() {
+        return handle;
+    }
+
+    String getCoalesceKey() {
+        return coalesceKey;
+    }
+
+    /**
+     * Whether the sound is left out, such as for a batch that plays one sound
+     * for all of its notifications
+     */
+    boolean isSilent() {
+        return silent;
+    }
+
+    synchronized long getLastSeen() {
+        return lastSeen;
+    }
+
+    /**
+     * Counts one more notification merged into this one
+     */
+    synchronized void merge(long now) {
+        count++;
+        lastSeen = now;
+    }
+
+    synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * The title with the number of merged notifications, such as
+     * "Server down (x17)"
+     */
+    synchronized String getDisplayTitle() {
+        if (count > 1) {
+            return title + " (x" + count + ")";
+        }
+        return title;
+    }
+
+    synchronized String getSubtitle() {
+        return subtitle;
+    }
+
+    /**
+     * How long the notification stays on screen once it is shown
+     */
+    synchronized Time getTime() {
+        return time;
+    }
+
+    synchronized void setTime(Time time) {
+        this.time = time;
+    }
+
+    synchronized ImageIcon getIcon() {
+        return icon;
+    }
+
+    /**
+     * Changes what this notification shows. A <code>null</code> value keeps
+     * the current one.
+     */
+    synchronized void setContent(String title, String subtitle, ImageIcon icon) {
+        if (title != null) {
+            this.title = title;
+        }
+        if (subtitle != null) {
+            this.subtitle = subtitle;
+        }
+        if (icon != null) {
+            this.icon = icon;
+        }
+    }
+
+    /**
+     * Claims the next repaint of the window
+     *
+     * @param interval the least time between repaints in nanoseconds
+     * @return how long to wait before repainting or -1 if a repaint is
+     * already coming, which will pick up the latest content
+     */
+    synchronized long scheduleRefresh(long interval, long now) {
+        if (refreshScheduled) {
+            return -1;
+        }
+        refreshScheduled = true;
+        return Math.max(0, lastRefresh + interval - now);
+    }
+
+    /**
+     * Marks the claimed repaint as started so later changes claim another
+     */
+    synchronized void startRefresh(long now) {
+        refreshScheduled = false;
+        lastRefresh = now;
+    }
+
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Marks this notification closed
+     *
+     * @return <code>false</code> if it was already closed
+     */
+    synchronized boolean markClosed() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        if (removal != null) {
+            removal.cancel(false);
+            removal = null;
+        }
+        return true;
+    }
+
+    /**
+     * Marks this notification as taking one of the on screen places
+     */
+    synchronized void markAdmitted() {
+        admitted = true;
+    }
+
+    synchronized boolean isAdmitted() {
+        return admitted;
+    }
+
+    synchronized void setRemoval(ScheduledFuture<?> removal) {
+        if (this.removal != null) {
+            this.removal.cancel(false);
+        }
+        this.removal = removal;
+    }
+
+    /**
+     * Marks this notification as handed to the renderer
+     *
+     * @return <code>false</code> if this notification was closed first
+     */
+    synchronized boolean markOpened() {
+        if (closed) {
+            return false;
+        }
+        opened = true;
+        return true;
+    }
+
+    synchronized boolean isOpened() {
+        return opened;
+    }
+}
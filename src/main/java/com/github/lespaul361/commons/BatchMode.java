@@ -0,0 +1,17 @@
+package com.github.lespaul361.commons;
+
+/**
+ * How a batch of notifications is put on screen
+ *
+ * @author Charles Hamilton
+ */
+public enum BatchMode {
+    /**
+     * Each notification gets its own toast, all built together
+     */
+    Stacked,
+    /**
+     * The whole batch is shown as one toast listing the titles
+     */
+    Grouped
+}
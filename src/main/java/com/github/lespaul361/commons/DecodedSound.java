@@ -0,0 +1,68 @@
+package com.github.lespaul361.commons;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * A sound that has already been read and decoded into PCM bytes so it can be
+ * played again without touching the original file or stream.
+ *
+ * @author Charles Hamilton
+ */
+public final class DecodedSound {
+
+    private final AudioFormat format;
+    private final byte[] data;
+
+    DecodedSound(AudioFormat format, byte[] data) {
+        this.format = format;
+        this.data = data;
+    }
+
+    /**
+     * Gets the format of the decoded bytes
+     *
+     * @return the audio format
+     */
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Gets the number of bytes of decoded audio
+     *
+     * @return the size in bytes
+     */
+    public int getSizeInBytes() {
+        return data.length;
+    }
+
+    /**
+     * Gets the number of sample frames
+     *
+     * @return the number of frames
+     */
+    public long getFrameLength() {
+        int frameSize = format.getFrameSize();
+        return frameSize > 0 ? data.length / frameSize : data.length;
+    }
+
+    /**
+     * Gets how long the sound plays
+     *
+     * @return the length in milliseconds
+     */
+    public long getDurationMillis() {
+        float frameRate = format.getFrameRate();
+        if (frameRate <= 0) {
+            return 0;
+        }
+        return (long) (getFrameLength() * 1000 / frameRate);
+    }
+
+    /**
+     * The decoded bytes. Shared, never modify.
+     */
+    byte[] getData() {
+        return data;
+    }
+}
@@ -0,0 +1,249 @@
+package com.github.lespaul361.commons;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * A bounded queue of tasks that are run on another <code>Executor</code>.
+ * At most <code>parallelism</code> tasks run at the same time and at most
+ * <code>capacity</code> tasks wait. When the queue is full the
+ * {@link RejectionPolicy} decides what happens to the next task.
+ * <p>
+ * The backing executor only ever receives a few worker tasks that drain the
+ * queue, so any <code>Executor</code> can be used, such as
+ * <code>EventQueue::invokeLater</code> for work on the event dispatch thread
+ * or a virtual thread executor on newer JDKs.
+ * <p>
+ * Tasks can be given a {@link NotificationPriority}. Higher priority tasks
+ * run first and, when the queue is full, the lowest priority tasks are the
+ * ones dropped. Tasks that implement {@link Rejectable} are told when they
+ * are dropped.
+ *
+ * @author Charles Hamilton
+ */
+public class DispatchQueue implements Executor {
+
+    /**
+     * The number of tasks a worker runs before handing the backing executor
+     * back. Keeps a long queue from hogging the event dispatch thread.
+     */
+    private static final int MAX_BATCH = 16;
+
+    /**
+     * A task that is told when the queue drops it, so whatever it was meant
+     * to finish can be cleaned up
+     */
+    public interface Rejectable extends Runnable {
+
+        /**
+         * Called instead of {@link #run()} when the task is dropped. Called
+         * on the thread that queued the task or the one that caused it to be
+         * dropped, without holding the queue's lock.
+         */
+        void rejected();
+    }
+
+    private static final ThreadLocal<DispatchQueue> CURRENT = new ThreadLocal<>();
+
+    private final Executor executor;
+    private final int parallelism;
+    private final int capacity;
+    private final RejectionPolicy policy;
+    private final PriorityBuffer<Runnable> queue = new PriorityBuffer<>();
+    private final Object lock = new Object();
+    private final Runnable worker = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+    private int activeWorkers = 0;
+    private long rejectedCount = 0;
+
+    /**
+     * Constructs a new <code>DispatchQueue</code>
+     *
+     * @param executor the executor that runs the tasks
+     * @param parallelism the most tasks to run at the same time
+     * @param capacity the most tasks that can wait to run
+     * @param policy what to do when the queue is full
+     */
+    public DispatchQueue(Executor executor, int parallelism, int capacity,
+            RejectionPolicy policy) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.capacity = capacity;
+        this.policy = policy == null ? RejectionPolicy.DropOldest : policy;
+    }
+
+    /**
+     * Queues a task to be run with {@link NotificationPriority#Normal}
+     * priority
+     *
+     * @param task the task to run
+     */
+    @Override
+    public void execute(Runnable task) {
+        execute(task, NotificationPriority.Normal);
+    }
+
+    /**
+     * Queues a task to be run
+     *
+     * @param task the task to run
+     * @param priority the priority of the task
+     */
+    public void execute(Runnable task, NotificationPriority priority) {
+        if (task == null) {
+            throw new NullPointerException("task cannot be null");
+        }
+        if (priority == null) {
+            priority = NotificationPriority.Normal;
+        }
+        Runnable dropped = null;
+        boolean startWorker = false;
+        synchronized (lock) {
+            while (dropped == null && queue.size() >= capacity) {
+                NotificationPriority lowest = queue.lowestPriority();
+                if (lowest.compareTo(priority) < 0) {
+                    // make room by dropping a less important task
+                    dropped = queue.pollLowest(policy == RejectionPolicy.DropOldest);
+                    rejectedCount++;
+                    break;
+                }
+                RejectionPolicy p = policy;
+                if (p == RejectionPolicy.Block && (CURRENT.get() == this
+                        || EventQueue.isDispatchThread())) {
+                    // waiting on our own worker would never end, and the
+                    // worker may itself be waiting for the event dispatch
+                    // thread
+                    p = RejectionPolicy.DropOldest;
+                }
+                if (p == RejectionPolicy.DropNewest
+                        || (p == RejectionPolicy.DropOldest
+                        && lowest.compareTo(priority) > 0)) {
+                    rejectedCount++;
+                    dropped = task;
+                } else if (p == RejectionPolicy.DropOldest) {
+                    dropped = queue.pollLowest(true);
+                    rejectedCount++;
+                } else {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        rejectedCount++;
+                        dropped = task;
+                    }
+                }
+            }
+            if (dropped != task) {
+                queue.add(task, priority);
+                if (activeWorkers < parallelism) {
+                    activeWorkers++;
+                    startWorker = true;
+                }
+            }
+        }
+        if (dropped != null) {
+            rejected(dropped);
+        }
+        if (startWorker) {
+            startWorker();
+        }
+    }
+
+    /**
+     * Gets the number of tasks waiting to run
+     *
+     * @return the number of waiting tasks
+     */
+    public int getQueueSize() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Gets the number of tasks that were dropped because the queue was full
+     *
+     * @return the number of dropped tasks
+     */
+    public long getRejectedCount() {
+        synchronized (lock) {
+            return rejectedCount;
+        }
+    }
+
+    private void startWorker() {
+        try {
+            executor.execute(worker);
+        } catch (RejectedExecutionException e) {
+            List<Runnable> dropped = new ArrayList<>();
+            synchronized (lock) {
+                activeWorkers--;
+                rejectedCount += queue.size();
+                Runnable task;
+                while ((task = queue.poll()) != null) {
+                    dropped.add(task);
+                }
+                lock.notifyAll();
+            }
+            for (Runnable task : dropped) {
+                rejected(task);
+            }
+        }
+    }
+
+    /**
+     * Tells a dropped task that it will not run
+     */
+    private static void rejected(Runnable task) {
+        if (task instanceof Rejectable) {
+            try {
+                ((Rejectable) task).rejected();
+            } catch (Throwable t) {
+                t.printStackTrace(System.err);
+            }
+        }
+    }
+
+    private void drain() {
+        DispatchQueue previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            for (int i = 0; i < MAX_BATCH; i++) {
+                Runnable task;
+                synchronized (lock) {
+                    task = queue.poll();
+                    if (task == null) {
+                        activeWorkers--;
+                        return;
+                    }
+                    lock.notifyAll();
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    t.printStackTrace(System.err);
+                }
+            }
+        } finally {
+            CURRENT.set(previous);
+        }
+        // give the executor back and continue later
+        startWorker();
+    }
+}
@@ -1,12 +1,13 @@
 package com.github.lespaul361.commons;
 
 import com.notification.NotificationFactory;
-import com.notification.manager.SlideManager;
-import com.notification.types.WindowNotification;
 import com.theme.ThemePackage;
 import com.utils.Time;
 import java.io.InputStream;
-import java.net.URL;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 import javax.swing.ImageIcon;
 
 /**
@@ -19,6 +20,11 @@ import javax.swing.ImageIcon;
  */
 public class DisplayNotification {
 
+    /**
+     * The resource name of the sound played when no other is given
+     */
+    static final String DEFAULT_SOUND = "/Windows Notify System Generic.wav";
+
     /**
      * Preset theme packs
      */
@@ -254,8 +260,8 @@ public class DisplayNotification {
     public static void showNotification(String title, String subTitle,
             MessageIconType messageType, double seconds) {
         Time t = Time.seconds(seconds);
-        showNotificationHelper(title, subTitle, getImageIcon(messageType), t,
-                getAudioFromResource(), getThemePackage(ThemePackagePresets.CleanDark));
+        showNotificationHelper(title, subTitle, messageType, t,
+                getDefaultSound(), getThemePackage(ThemePackagePresets.CleanDark));
     }
 
     /**
@@ -292,8 +298,8 @@ public class DisplayNotification {
             MessageIconType messageType, double seconds,
             ThemePackagePresets preset) {
         Time t = Time.seconds(seconds);
-        showNotificationHelper(title, subTitle, getImageIcon(messageType), t,
-                getAudioFromResource(), getThemePackage(preset));
+        showNotificationHelper(title, subTitle, messageType, t,
+                getDefaultSound(), getThemePackage(preset));
     }
 
     /**
@@ -311,8 +317,8 @@ public class DisplayNotification {
             MessageIconType messageType, double seconds,
             ThemePackage themePackage) {
         Time t = Time.seconds(seconds);
-        showNotificationHelper(title, subTitle, getImageIcon(messageType), t,
-                getAudioFromResource(), themePackage);
+        showNotificationHelper(title, subTitle, messageType, t,
+                getDefaultSound(), themePackage);
     }
 
     /**
@@ -326,7 +332,7 @@ public class DisplayNotification {
      */
     public static void showNotification(String title, String subTitle, int milliSeconds) {
         Time t = Time.milliseconds(milliSeconds);
-        showNotificationHelper(title, subTitle, null, t, getAudioFromResource(),
+        showNotificationHelper(title, subTitle, null, t, getDefaultSound(),
                 getThemePackage(ThemePackagePresets.CleanDark));
     }
 
@@ -362,7 +368,7 @@ public class DisplayNotification {
     public static void showNotification(String title, String subTitle,
             int milliSeconds, ThemePackagePresets preset) {
         Time t = Time.milliseconds(milliSeconds);
-        showNotificationHelper(title, subTitle, null, t, getAudioFromResource(),
+        showNotificationHelper(title, subTitle, null, t, getDefaultSound(),
                 getThemePackage(preset));
     }
 
@@ -379,7 +385,7 @@ public class DisplayNotification {
     public static void showNotification(String title, String subTitle,
             int milliSeconds, ThemePackage themePackage) {
         Time t = Time.milliseconds(milliSeconds);
-        showNotificationHelper(title, subTitle, null, t, getAudioFromResource(),
+        showNotificationHelper(title, subTitle, null, t, getDefaultSound(),
                 themePackage);
     }
 
@@ -397,8 +403,8 @@ public class DisplayNotification {
     public static void showNotification(String title, String subTitle,
             MessageIconType messageType, int milliSeconds) {
         Time t = Time.milliseconds(milliSeconds);
-        showNotificationHelper(title, subTitle, getImageIcon(messageType), t,
-                getAudioFromResource(), getThemePackage(ThemePackagePresets.CleanDark));
+        showNotificationHelper(title, subTitle, messageType, t,
+                getDefaultSound(), getThemePackage(ThemePackagePresets.CleanDark));
     }
 
     /**
@@ -436,8 +442,8 @@ public class DisplayNotification {
             MessageIconType messageType, int milliSeconds,
             ThemePackagePresets preset) {
         Time t = Time.milliseconds(milliSeconds);
-        showNotificationHelper(title, subTitle, getImageIcon(messageType), t,
-                getAudioFromResource(), getThemePackage(preset));
+        showNotificationHelper(title, subTitle, messageType, t,
+                getDefaultSound(), getThemePackage(preset));
     }
 
     /**
@@ -456,8 +462,8 @@ public class DisplayNotification {
             MessageIconType messageType, int milliSeconds,
             ThemePackage themePackage) {
         Time t = Time.milliseconds(milliSeconds);
-        showNotificationHelper(title, subTitle, getImageIcon(messageType), t,
-                getAudioFromResource(), themePackage);
+        showNotificationHelper(title, subTitle, messageType, t,
+                getDefaultSound(), themePackage);
     }
 
     /**
@@ -530,120 +536,154 @@ public class DisplayNotification {
         showNotificationHelper(title, subTitle, icon, time, soundClip, themePackage);
     }
 
-    private static void showNotificationHelper(String title, String subTitle,
-            ImageIcon icon, Time time, InputStream soundClip, ThemePackage themePackage) {
-        Runnable r2 = new Runnable() {
-            @Override
-            public void run() {
-                NotificationFactory factory = new NotificationFactory(themePackage);
-                SlideManager manager = new SlideManager(NotificationFactory.Location.SOUTHEAST);
-                manager.setSlideDirection(SlideManager.SlideDirection.WEST);
-                Time t2 = null;
-                if (time == null) {
-                    t2 = Time.seconds(5);
-                } else {
-                    t2 = time;
-                }
+    /**
+     * Shows several notifications together using
+     * {@link BatchMode#Stacked}. The windows are built together and only the
+     * sound of the most important notification is played.
+     *
+     * @param builders the notifications to show
+     */
+    public static void showNotifications(
+            Collection<? extends NotificationBuilder> builders) {
+        showNotifications(builders, BatchMode.Stacked);
+    }
 
-                WindowNotification wn = null;
-                if (icon != null) {
-                    wn = factory.buildIconNotification(title, subTitle, icon);
-                    wn.setCloseOnClick(true);
-                } else {
-                    wn = factory.buildTextNotification(title, subTitle);
-                    wn.setCloseOnClick(true);
-                }
-                manager.addNotification(wn, t2);
+    /**
+     * Shows several notifications together. The windows are built together
+     * and only the sound of the most important notification is played.
+     *
+     * @param builders the notifications to show
+     * @param mode {@link BatchMode#Stacked} for a toast each or
+     * {@link BatchMode#Grouped} for one toast listing them all
+     */
+    public static void showNotifications(
+            Collection<? extends NotificationBuilder> builders, BatchMode mode) {
+        NotificationEngine.getDefault().showNotifications(builders, mode);
+    }
+
+    /**
+     * Gets a template added with
+     * {@link NotificationBuilder#register(String)}
+     * <pre>
+     * DisplayNotification.template("jobDone").with("job", id).show();
+     * </pre>
+     *
+     * @param name the name of the template
+     * @return the template
+     * @throws IllegalArgumentException if there is no template with the name
+     */
+    public static NotificationTemplate template(String name) {
+        NotificationTemplate template = TemplateRegistry.getDefault()
+                .getTemplate(name);
+        if (template == null) {
+            throw new IllegalArgumentException("no template named " + name);
+        }
+        return template;
+    }
+
+    /**
+     * Loads everything the first notification needs so it shows as fast as
+     * later ones: the toolkit and event dispatch thread, the preset themes,
+     * the icons, the default sound, the audio line and the windows. Blocks
+     * until done, see {@link #warmUpAsync()} to do it in the background.
+     *
+     * @return how long each stage took
+     */
+    public static WarmUpReport warmUp() {
+        return warmUp(NotificationEngine.getDefault());
+    }
+
+    /**
+     * Loads everything the first notification shown with an engine needs
+     *
+     * @param engine the engine that will show the notifications
+     * @return how long each stage took
+     */
+    public static WarmUpReport warmUp(NotificationEngine engine) {
+        return WarmUp.run(engine);
+    }
 
+    /**
+     * Runs {@link #warmUp()} on a background thread, such as while an
+     * application starts up
+     *
+     * @return a future that completes with how long each stage took
+     */
+    public static CompletableFuture<WarmUpReport> warmUpAsync() {
+        return CompletableFuture.supplyAsync(new Supplier<WarmUpReport>() {
+            @Override
+            public WarmUpReport get() {
+                return warmUp();
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                new NamedThreadFactory("notification-warmup").newThread(command)
+                        .start();
             }
-        };
-        playSound(soundClip);
-        Thread t2 = new Thread(r2);
-        t2.start();
+        });
     }
 
-    private static InputStream getAudioFromResource() {
-        InputStream in = ClassLoader.class.getResourceAsStream("/Windows Notify System Generic.wav");
-        return in;
+    private static void showNotificationHelper(String title, String subTitle,
+            ImageIcon icon, Time time, InputStream soundClip, ThemePackage themePackage) {
+        NotificationEngine.getDefault().showNotification(title, subTitle, icon,
+                time, soundClip, themePackage);
     }
 
-    private static ImageIcon getImageIcon(MessageIconType messageType) {
-        if (messageType == null) {
-            return null;
-        }
-        String fileName = "";
-        switch (messageType) {
-            case Error:
-                fileName = "error.png";
-                break;
-            case Exclamation:
-                fileName = "exclamation.png";
-                break;
-            case Warning:
-                fileName = "warning.png";
-                break;
-            case Question:
-                fileName = "Question.png";
-                break;
-            case None:
-                return null;
+    private static void showNotificationHelper(String title, String subTitle,
+            MessageIconType messageType, Time time, DecodedSound sound,
+            ThemePackage themePackage) {
+        NotificationEngine.getDefault().show(new NotificationRequest(title,
+                subTitle, getImageIcon(messageType), time, sound, null,
+                themePackage, null, null,
+                NotificationPriority.forIconType(messageType))
+                .describe(messageType == null ? null : messageType.name(), null));
+    }
 
-        }
+    private static DecodedSound getDefaultSound() {
         try {
-            URL imageURL = DisplayNotification.class.getResource("/" + fileName);
-            if (imageURL
-                == null) {
-            System.err.println("Resource not found: /" + fileName);
-            return null;
-        } else {
-             return new  ImageIcon(imageURL);                
-        }
+            return SoundCache.getDefault().getResource(DEFAULT_SOUND);
         } catch (Exception e) {
             e.printStackTrace(System.out);
         }
         return null;
     }
 
-    private static ThemePackage getThemePackage(ThemePackagePresets preset) {
-        if (preset == null) {
-            preset = ThemePackagePresets.CleanDark;
-        }
-
-        switch (preset) {
-            case CleanDark:
-                return com.theme.ThemePackagePresets.cleanDark();
-            case CleanLight:
-                return com.theme.ThemePackagePresets.cleanLight();
-            case Aqua:
-                return com.theme.ThemePackagePresets.aqua();
-        }
-
-        return null;
+    private static ImageIcon getImageIcon(MessageIconType messageType) {
+        return IconRegistry.getDefault().getIcon(messageType);
     }
 
-    private static void playSound(InputStream soundStream) {
-        Runnable r1 = new Runnable() {
-            @Override
-            public void run() {
-                SoundPlayer.playSound(soundStream);
-            }
-        };
-        Thread t1 = new Thread(r1);
-        t1.start();
+    private static ThemePackage getThemePackage(ThemePackagePresets preset) {
+        return ThemeRegistry.getDefault().getTheme(preset);
     }
 
     /**
      * Builder for making a notification. The default theme is cleanDark and
      * lasts 5 seconds.
+     * <p>
+     * Themes, icons and sounds chosen by preset, type or key are only looked
+     * up in {@link ThemeRegistry}, {@link IconRegistry} and {@link SoundCache}
+     * when the notification is shown, so a builder is cheap to make and can
+     * be shown many times.
      */
     public static class NotificationBuilder {
 
         private final String title;
         private final String subtitle;
-        private ThemePackage themePackage = com.theme.ThemePackagePresets.cleanDark();
         private Time time = Time.seconds(5);
+        private ThemePackage themePackage = null;
+        private ThemePackagePresets themePreset = ThemePackagePresets.CleanDark;
+        private String themeName = null;
         private ImageIcon icon = null;
-        private InputStream soundStream = getAudioFromResource();
+        private MessageIconType iconType = null;
+        private String iconKey = null;
+        private InputStream soundStream = null;
+        private DecodedSound sound = null;
+        private String soundKey = DEFAULT_SOUND;
+        private SoundLibrary soundLibrary = null;
+        private NotificationFactory.Location location = null;
+        private String coalesceKey = null;
+        private NotificationPriority priority = null;
 
         /**
          * Constructs a new <code>NotificationBuilder</code>
@@ -692,7 +732,8 @@ public class DisplayNotification {
          * @return this notification builder
          */
         public NotificationBuilder theme(ThemePackagePresets preset) {
-            this.themePackage = getThemePackage(preset);
+            clearTheme();
+            this.themePreset = preset;
             return this;
         }
 
@@ -703,10 +744,24 @@ public class DisplayNotification {
          * @return this notification builder
          */
         public NotificationBuilder theme(ThemePackage themePackage) {
+            clearTheme();
             this.themePackage = themePackage;
             return this;
         }
 
+        /**
+         * A theme registered with {@link ThemeRegistry} or the name of a
+         * preset
+         *
+         * @param name the name of the theme
+         * @return this notification builder
+         */
+        public NotificationBuilder theme(String name) {
+            clearTheme();
+            this.themeName = name;
+            return this;
+        }
+
         /**
          * The icon to use from internal resources
          *
@@ -715,7 +770,8 @@ public class DisplayNotification {
          * @return this notification builder
          */
         public NotificationBuilder icon(MessageIconType iconType) {
-            this.icon = getImageIcon(iconType);
+            clearIcon();
+            this.iconType = iconType;
             return this;
         }
 
@@ -726,10 +782,23 @@ public class DisplayNotification {
          * @return this notification builder
          */
         public NotificationBuilder icon(ImageIcon icon) {
+            clearIcon();
             this.icon = icon;
             return this;
         }
 
+        /**
+         * An icon registered with {@link IconRegistry}
+         *
+         * @param key the key the icon was registered with
+         * @return this notification builder
+         */
+        public NotificationBuilder icon(String key) {
+            clearIcon();
+            this.iconKey = key;
+            return this;
+        }
+
         /**
          * An <code>InputStream</code> for the sound to play when the
          * notification is shown
@@ -738,15 +807,337 @@ public class DisplayNotification {
          * @return this notification builder
          */
         public NotificationBuilder sound(InputStream audioStream) {
+            clearSound();
             this.soundStream = audioStream;
             return this;
         }
-        
+
+        /**
+         * A decoded sound to play when the notification is shown, such as one
+         * from {@link SoundCache}
+         *
+         * @param sound the sound
+         * @return this notification builder
+         */
+        public NotificationBuilder sound(DecodedSound sound) {
+            clearSound();
+            this.sound = sound;
+            return this;
+        }
+
+        /**
+         * A sound cached in {@link SoundCache} under the key, or a classpath
+         * resource to cache the first time it is played
+         *
+         * @param key the key or resource name of the sound, or
+         * <code>null</code> for no sound
+         * @return this notification builder
+         */
+        public NotificationBuilder sound(String key) {
+            clearSound();
+            this.soundKey = key;
+            return this;
+        }
+
+        /**
+         * A sound from a {@link SoundLibrary}. Short sounds are decoded and
+         * cached the first time they are played, long ones are streamed from
+         * the library.
+         *
+         * @param library the library with the sound
+         * @param name the name of the sound in the library
+         * @return this notification builder
+         */
+        public NotificationBuilder sound(SoundLibrary library, String name) {
+            clearSound();
+            this.soundLibrary = library;
+            this.soundKey = name;
+            return this;
+        }
+
+        /**
+         * Where on the screen to show the notification
+         *
+         * @param location the location to use. Default is the location of the
+         * {@link NotificationEngine} showing the notification
+         * @return this notification builder
+         */
+        public NotificationBuilder location(NotificationFactory.Location location) {
+            this.location = location;
+            return this;
+        }
+
+        /**
+         * The key used to merge repeated notifications. Notifications with
+         * the same key shown close together are merged into one. Default is
+         * to merge notifications with the same title and subtitle
+         *
+         * @param key the key
+         * @return this notification builder
+         */
+        public NotificationBuilder coalesceKey(String key) {
+            this.coalesceKey = key;
+            return this;
+        }
+
+        /**
+         * How important the notification is. Higher priority notifications
+         * and sounds are shown first and dropped last
+         *
+         * @param priority the priority. Default comes from the
+         * {@link MessageIconType}, see
+         * {@link NotificationPriority#forIconType(MessageIconType)}
+         * @return this notification builder
+         */
+        public NotificationBuilder priority(NotificationPriority priority) {
+            this.priority = priority;
+            return this;
+        }
+
         /**
          * Shows the notification from the builder
          */
         public void showNotification(){
-            showNotificationHelper(title, subtitle, icon, time, soundStream, themePackage);
+            showNotification(NotificationEngine.getDefault());
+        }
+
+        /**
+         * Shows the notification from the builder using the given engine
+         *
+         * @param engine the engine to show the notification with
+         */
+        public void showNotification(NotificationEngine engine) {
+            engine.show(toRequest());
+        }
+
+        /**
+         * Shows the notification from the builder without blocking
+         *
+         * @return a future that completes with a handle for the notification
+         * once it is on screen, or is cancelled if it is dropped or closed
+         * first
+         */
+        public CompletableFuture<NotificationHandle> showNotificationAsync() {
+            return showNotificationAsync(NotificationEngine.getDefault());
+        }
+
+        /**
+         * Shows the notification from the builder using the given engine
+         * without blocking
+         *
+         * @param engine the engine to show the notification with
+         * @return a future that completes with a handle for the notification
+         * once it is on screen, or is cancelled if it is dropped or closed
+         * first
+         */
+        public CompletableFuture<NotificationHandle> showNotificationAsync(
+                NotificationEngine engine) {
+            return engine.showAsync(this);
+        }
+
+        /**
+         * Makes a template from the builder. The title, subtitle and coalesce
+         * key can hold <code>{name}</code> placeholders, and the theme, icon
+         * and sound are looked up now and shared by every notification shown
+         * from the template.
+         *
+         * @return the template
+         * @throws IllegalArgumentException if a placeholder is not closed,
+         * the sound is an <code>InputStream</code>, which can only be played
+         * once, or the sound is not in its {@link SoundLibrary}
+         */
+        public NotificationTemplate compile() {
+            if (soundStream != null) {
+                throw new IllegalArgumentException("a template cannot play a sound "
+                        + "stream, use a decoded sound or a sound key");
+            }
+            if (soundLibrary != null && soundKey != null
+                    && !soundLibrary.contains(soundKey)) {
+                throw new IllegalArgumentException("no sound named " + soundKey
+                        + " in " + soundLibrary);
+            }
+            DecodedSound decoded = null;
+            SoundLibrary streamLibrary = null;
+            boolean stream = false;
+            if (soundLibrary != null && soundKey != null) {
+                try {
+                    stream = soundLibrary.isLong(soundKey);
+                } catch (Exception e) {
+                    e.printStackTrace(System.out);
+                }
+            }
+            if (stream) {
+                streamLibrary = soundLibrary;
+            } else {
+                decoded = resolveSound();
+            }
+            return new NotificationTemplate(title, subtitle, coalesceKey, time,
+                    resolveIcon(), resolveTheme(), decoded, streamLibrary,
+                    soundKey, location, resolvePriority(), describeIcon(),
+                    describeTheme());
+        }
+
+        /**
+         * Makes a template from the builder with {@link #compile()} and adds
+         * it to {@link TemplateRegistry} so it can be shown with
+         * {@link DisplayNotification#template(String)}
+         *
+         * @param name the name of the template
+         * @return the template
+         */
+        public NotificationTemplate register(String name) {
+            NotificationTemplate template = compile();
+            TemplateRegistry.getDefault().register(name, template);
+            return template;
+        }
+
+        NotificationRequest toRequest() {
+            InputStream stream = resolveSoundStream();
+            return new NotificationRequest(title, subtitle, resolveIcon(), time,
+                    stream == null ? resolveSound() : null, stream,
+                    resolveTheme(), location, coalesceKey, resolvePriority())
+                    .describe(describeIcon(), describeTheme());
+        }
+
+        private String describeIcon() {
+            if (iconType != null) {
+                return iconType.name();
+            }
+            return iconKey;
+        }
+
+        private String describeTheme() {
+            if (themeName != null) {
+                return themeName;
+            }
+            if (themePackage == null && themePreset != null) {
+                return themePreset.name();
+            }
+            return null;
+        }
+
+        /**
+         * Writes the builder as a {@link NotifierProtocol} request line
+         *
+         * @throws IllegalArgumentException if the builder uses a theme, icon
+         * or sound object that cannot be sent to another process
+         */
+        String toWire() {
+            if (themePackage != null || icon != null || soundStream != null
+                    || sound != null || soundLibrary != null) {
+                throw new IllegalArgumentException("Only themes, icons and sounds "
+                        + "chosen by name can be sent to a notifier daemon");
+            }
+            StringBuilder line = new StringBuilder(64).append(NotifierProtocol.NOTIFY);
+            NotifierProtocol.append(line, NotifierProtocol.TITLE, title);
+            NotifierProtocol.append(line, NotifierProtocol.SUBTITLE, subtitle);
+            if (time != null) {
+                NotifierProtocol.appendTime(line, time);
+            }
+            NotifierProtocol.append(line, NotifierProtocol.ICON_TYPE, iconType);
+            NotifierProtocol.append(line, NotifierProtocol.ICON_KEY, iconKey);
+            if (themeName == null) {
+                NotifierProtocol.append(line, NotifierProtocol.THEME_PRESET,
+                        themePreset);
+            }
+            NotifierProtocol.append(line, NotifierProtocol.THEME_NAME, themeName);
+            if (!DEFAULT_SOUND.equals(soundKey)) {
+                NotifierProtocol.append(line, NotifierProtocol.SOUND,
+                        soundKey == null ? "" : soundKey);
+            }
+            NotifierProtocol.append(line, NotifierProtocol.LOCATION, location);
+            NotifierProtocol.append(line, NotifierProtocol.COALESCE_KEY,
+                    coalesceKey);
+            NotifierProtocol.append(line, NotifierProtocol.PRIORITY, priority);
+            return line.toString();
+        }
+
+        NotificationPriority resolvePriority() {
+            if (priority != null) {
+                return priority;
+            }
+            return NotificationPriority.forIconType(iconType);
+        }
+
+        ThemePackage resolveTheme() {
+            ThemePackage theme = themePackage;
+            if (theme == null && themeName != null) {
+                theme = ThemeRegistry.getDefault().getTheme(themeName);
+            }
+            if (theme == null) {
+                theme = getThemePackage(themePreset);
+            }
+            return theme;
+        }
+
+        ImageIcon resolveIcon() {
+            if (icon != null) {
+                return icon;
+            }
+            if (iconKey != null) {
+                return IconRegistry.getDefault().getIcon(iconKey);
+            }
+            return getImageIcon(iconType);
+        }
+
+        DecodedSound resolveSound() {
+            if (sound != null) {
+                return sound;
+            }
+            if (soundKey == null) {
+                return null;
+            }
+            if (soundLibrary != null) {
+                try {
+                    return soundLibrary.getSound(soundKey);
+                } catch (Exception e) {
+                    e.printStackTrace(System.out);
+                }
+                return null;
+            }
+            DecodedSound cached = SoundCache.getDefault().get(soundKey);
+            if (cached != null) {
+                return cached;
+            }
+            try {
+                return SoundCache.getDefault().getResource(soundKey);
+            } catch (Exception e) {
+                e.printStackTrace(System.out);
+            }
+            return null;
+        }
+
+        InputStream resolveSoundStream() {
+            if (soundStream != null || soundLibrary == null || soundKey == null) {
+                return soundStream;
+            }
+            try {
+                if (soundLibrary.isLong(soundKey)) {
+                    return soundLibrary.openStream(soundKey);
+                }
+            } catch (Exception e) {
+                e.printStackTrace(System.out);
+            }
+            return null;
+        }
+
+        private void clearTheme() {
+            themePackage = null;
+            themePreset = ThemePackagePresets.CleanDark;
+            themeName = null;
+        }
+
+        private void clearIcon() {
+            icon = null;
+            iconType = null;
+            iconKey = null;
+        }
+
+        private void clearSound() {
+            soundStream = null;
+            sound = null;
+            soundKey = null;
+            soundLibrary = null;
         }
     }
 }
@@ -0,0 +1,48 @@
+package com.github.lespaul361.commons;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A renderer for JVMs without a display. Nothing is drawn and no sound is
+ * played, so showing a notification costs no windows and no threads.
+ * Notifications still go through the engine and count as shown, and they
+ * go away when their time is up.
+ *
+ * @author Charles Hamilton
+ */
+public class HeadlessRenderer implements NotificationRenderer {
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    public void show(NotificationHandle handle, Listener listener) {
+        listener.shown(handle);
+    }
+
+    @Override
+    public void update(NotificationHandle handle) {
+    }
+
+    @Override
+    public void hide(NotificationHandle handle) {
+    }
+
+    @Override
+    public boolean playSound(DecodedSound sound, NotificationPriority priority) {
+        return false;
+    }
+
+    @Override
+    public boolean playSound(InputStream sound, NotificationPriority priority) {
+        try {
+            sound.close();
+        } catch (IOException e) {
+            // nothing more to do with it
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * Holds decoded notification icons so each image is read once. Every icon is
+ * kept at its own size and pre-scaled for common display scales. The
+ * {@link MessageIconType} icons are decoded on first use, or all at once with
+ * {@link #preload()}, and applications can register their own icons by key.
+ *
+ * @author Charles Hamilton
+ */
+public class IconRegistry {
+
+    /**
+     * The display scales icons are pre-scaled for
+     */
+    public static final double[] DEFAULT_SCALES = {1.0, 1.25, 1.5, 2.0};
+
+    private static final IconRegistry DEFAULT = new IconRegistry();
+
+    private final Map<MessageIconType, IconSet> builtIn
+            = Collections.synchronizedMap(new EnumMap<MessageIconType, IconSet>(MessageIconType.class));
+    private final ConcurrentHashMap<String, IconSet> custom = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the registry used by the notification classes
+     *
+     * @return the default registry
+     */
+    public static IconRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Decodes every {@link MessageIconType} icon now instead of on first use
+     */
+    public void preload() {
+        for (MessageIconType type : MessageIconType.values()) {
+            getIcon(type);
+        }
+    }
+
+    /**
+     * Gets the icon for a message type at its own size
+     *
+     * @param type the type of icon
+     * @return the icon or <code>null</code> for {@link MessageIconType#None}
+     */
+    public ImageIcon getIcon(MessageIconType type) {
+        return getIcon(type, 1.0);
+    }
+
+    /**
+     * Gets the icon for a message type scaled for a display
+     *
+     * @param type the type of icon
+     * @param scale the display scale, such as 1.5 for 150%. The nearest
+     * pre-scaled size is used
+     * @return the icon or <code>null</code> for {@link MessageIconType#None}
+     */
+    public ImageIcon getIcon(MessageIconType type, double scale) {
+        if (type == null || type == MessageIconType.None) {
+            return null;
+        }
+        IconSet set = builtIn.get(type);
+        if (set == null) {
+            set = loadBuiltIn(type);
+            if (set == null) {
+                return null;
+            }
+            builtIn.put(type, set);
+        }
+        return set.get(scale);
+    }
+
+    /**
+     * Gets an icon registered with {@link #register(String, Image)}
+     *
+     * @param key the key the icon was registered with
+     * @return the icon or <code>null</code> if there is none
+     */
+    public ImageIcon getIcon(String key) {
+        return getIcon(key, 1.0);
+    }
+
+    /**
+     * Gets an icon registered with {@link #register(String, Image)} scaled for
+     * a display
+     *
+     * @param key the key the icon was registered with
+     * @param scale the display scale, such as 1.5 for 150%. The nearest
+     * pre-scaled size is used
+     * @return the icon or <code>null</code> if there is none
+     */
+    public ImageIcon getIcon(String key, double scale) {
+        IconSet set = custom.get(key);
+        return set == null ? null : set.get(scale);
+    }
+
+    /**
+     * Adds an icon that can be looked up by key
+     *
+     * @param key the key for the icon
+     * @param image the image to use
+     */
+    public void register(String key, Image image) {
+        custom.put(key, new IconSet(toBufferedImage(image)));
+    }
+
+    /**
+     * Adds an icon that can be looked up by key, decoding it now
+     *
+     * @param key the key for the icon
+     * @param imageURL where to read the image from
+     * @throws IOException if the image cannot be read
+     */
+    public void register(String key, URL imageURL) throws IOException {
+        BufferedImage image = ImageIO.read(imageURL);
+        if (image == null) {
+            throw new IOException("Not a readable image: " + imageURL);
+        }
+        custom.put(key, new IconSet(image));
+    }
+
+    /**
+     * Removes an icon added with {@link #register(String, Image)}
+     *
+     * @param key the key for the icon
+     */
+    public void unregister(String key) {
+        custom.remove(key);
+    }
+
+    private static IconSet loadBuiltIn(MessageIconType type) {
+        String fileName = "";
+        switch (type) {
+            case Error:
+                fileName = "error.png";
+                break;
+            case Exclamation:
+                fileName = "exclamation.png";
+                break;
+            case Warning:
+                fileName = "warning.png";
+                break;
+            case Question:
+                fileName = "question.png";
+                break;
+            default:
+                return null;
+        }
+        URL imageURL = IconRegistry.class.getResource("/" + fileName);
+        if (imageURL == null) {
+            System.err.println("Resource not found: /" + fileName);
+            return null;
+        }
+        try {
+            return new IconSet(ImageIO.read(imageURL));
+        } catch (IOException e) {
+            e.printStackTrace(System.out);
+        }
+        return null;
+    }
+
+    private static BufferedImage toBufferedImage(Image image) {
+        if (image instanceof BufferedImage) {
+            return (BufferedImage) image;
+        }
+        // makes sure the image is fully loaded before drawing it
+        ImageIcon loaded = new ImageIcon(image);
+        BufferedImage buffered = new BufferedImage(loaded.getIconWidth(),
+                loaded.getIconHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = buffered.createGraphics();
+        g.drawImage(loaded.getImage(), 0, 0, null);
+        g.dispose();
+        return buffered;
+    }
+
+    /**
+     * One image at each of the {@link #DEFAULT_SCALES}. Never changes after it
+     * is made.
+     */
+    private static final class IconSet {
+
+        private final TreeMap<Double, ImageIcon> scaled = new TreeMap<>();
+
+        IconSet(BufferedImage image) {
+            for (double scale : DEFAULT_SCALES) {
+                scaled.put(scale, new ImageIcon(scale(image, scale)));
+            }
+        }
+
+        ImageIcon get(double scale) {
+            Map.Entry<Double, ImageIcon> floor = scaled.floorEntry(scale);
+            Map.Entry<Double, ImageIcon> ceiling = scaled.ceilingEntry(scale);
+            if (floor == null) {
+                return ceiling.getValue();
+            }
+            if (ceiling == null) {
+                return floor.getValue();
+            }
+            return scale - floor.getKey() <= ceiling.getKey() - scale
+                    ? floor.getValue() : ceiling.getValue();
+        }
+
+        private static BufferedImage scale(BufferedImage image, double scale) {
+            if (scale == 1.0) {
+                return image;
+            }
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            BufferedImage scaledImage = new BufferedImage(width, height,
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = scaledImage.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                    RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(image, 0, 0, width, height, null);
+            g.dispose();
+            return scaledImage;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.ThemePackagePresets;
+import com.notification.Notification;
+import com.notification.NotificationFactory;
+import com.notification.NotificationListener;
+import com.notification.NotificationManager;
+import com.notification.manager.SlideManager;
+import com.notification.types.IconNotification;
+import com.notification.types.TextNotification;
+import com.notification.types.WindowNotification;
+import com.utils.Time;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shows notifications as JCommunique windows that slide in from the side of
+ * the screen and plays sounds through the shared {@link SoundMixer}. One
+ * <code>SlideManager</code> is kept per location so toasts are handled by the
+ * same manager instead of each one building its own, and the windows come
+ * from a {@link WindowPool} so steady use creates no new native windows.
+ * <p>
+ * The managers are not thread safe, so everything but the sounds must be
+ * called on the event dispatch thread.
+ *
+ * @author Charles Hamilton
+ */
+public class JCommuniqueRenderer implements NotificationRenderer {
+
+    /**
+     * The most hidden windows the default pool keeps
+     */
+    private static final int DEFAULT_POOL_SIZE = 8;
+
+    /**
+     * How long the default pool keeps a hidden window
+     */
+    private static final long DEFAULT_POOL_IDLE_MILLIS = 60000;
+
+    /**
+     * How many windows {@link #warmUp()} has ready
+     */
+    private static final int WARM_WINDOWS = 2;
+
+    private final WindowPool pool;
+    private final Map<NotificationHandle, Shown> windows = new HashMap<>();
+    private final Map<NotificationFactory.Location, SlideManager> managers
+            = new EnumMap<>(NotificationFactory.Location.class);
+
+    /**
+     * Constructs a new <code>JCommuniqueRenderer</code> with a pool of up to
+     * 8 windows that are kept for a minute
+     */
+    public JCommuniqueRenderer() {
+        this(new WindowPool(DEFAULT_POOL_SIZE, DEFAULT_POOL_IDLE_MILLIS));
+    }
+
+    /**
+     * Constructs a new <code>JCommuniqueRenderer</code>
+     *
+     * @param pool the pool to take windows from
+     */
+    public JCommuniqueRenderer(WindowPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the pool the windows come from
+     *
+     * @return the window pool
+     */
+    public WindowPool getWindowPool() {
+        return pool;
+    }
+
+    @Override
+    public boolean isHeadless() {
+        return false;
+    }
+
+    @Override
+    public void show(NotificationHandle handle, Listener listener) {
+        SlideManager manager = getManager(handle.getLocation());
+        WindowNotification wn = pool.acquire(handle.getThemePackage(),
+                handle.getTitle(), handle.getSubtitle(), handle.getIcon());
+        wn.addNotificationListener(new NotificationListener() {
+            @Override
+            public void actionCompleted(Notification notification, String action) {
+                if (WindowNotification.SHOWN.equals(action)) {
+                    listener.shown(handle);
+                } else if (WindowNotification.CLICKED.equals(action)) {
+                    // closed by a click, the manager has already removed it
+                    windows.remove(handle);
+                    listener.clicked(handle);
+                } else if (WindowNotification.HIDDEN.equals(action)) {
+                    windows.remove(handle);
+                    listener.hidden(handle);
+                }
+            }
+        });
+        windows.put(handle, new Shown(wn, manager));
+        // the engine decides when the notification goes away
+        manager.addNotification(wn, Time.infinite());
+    }
+
+    @Override
+    public void update(NotificationHandle handle) {
+        Shown shown = windows.get(handle);
+        if (shown == null) {
+            return;
+        }
+        if (shown.window instanceof TextNotification) {
+            ((TextNotification) shown.window).setTitle(handle.getTitle());
+            ((TextNotification) shown.window).setSubtitle(handle.getSubtitle());
+        }
+        if (shown.window instanceof IconNotification && handle.getIcon() != null) {
+            ((IconNotification) shown.window).setIcon(handle.getIcon());
+        }
+    }
+
+    @Override
+    public void hide(NotificationHandle handle) {
+        Shown shown = windows.remove(handle);
+        if (shown != null) {
+            shown.manager.removeNotification(shown.window);
+        }
+    }
+
+    /**
+     * Creates windows for the default theme
+     */
+    @Override
+    public void warmUp() {
+        pool.warm(ThemeRegistry.getDefault().getTheme(ThemePackagePresets.CleanDark),
+                true, WARM_WINDOWS);
+    }
+
+    @Override
+    public boolean playSound(DecodedSound sound, NotificationPriority priority) {
+        return SoundPlayer.playSound(sound, priority);
+    }
+
+    @Override
+    public boolean playSound(InputStream sound, NotificationPriority priority) {
+        return SoundPlayer.playSound(sound, priority);
+    }
+
+    private SlideManager getManager(NotificationFactory.Location location) {
+        SlideManager manager = managers.get(location);
+        if (manager == null) {
+            manager = new SlideManager(location);
+            manager.setSlideDirection(SlideManager.SlideDirection.WEST);
+            managers.put(location, manager);
+        }
+        return manager;
+    }
+
+    /**
+     * A window on screen and the manager showing it
+     */
+    private static final class Shown {
+
+        private final WindowNotification window;
+        private final NotificationManager manager;
+
+        Shown(WindowNotification window, NotificationManager manager) {
+            this.window = window;
+            this.manager = manager;
+        }
+    }
+}
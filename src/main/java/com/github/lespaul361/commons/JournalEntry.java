@@ -0,0 +1,123 @@
+package com.github.lespaul361.commons;
+
+import java.util.Date;
+
+/**
+ * One notification read from a {@link NotificationJournal}
+ *
+ * @author Charles Hamilton
+ */
+public final class JournalEntry {
+
+    private final long id;
+    private final long timestamp;
+    private final String title;
+    private final String subtitle;
+    private final String icon;
+    private final String theme;
+    private final NotificationPriority priority;
+    private final NotificationOutcome outcome;
+
+    JournalEntry(long id, long timestamp, String title, String subtitle,
+            String icon, String theme, NotificationPriority priority,
+            NotificationOutcome outcome) {
+        this.id = id;
+        this.timestamp = timestamp;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.icon = icon;
+        this.theme = theme;
+        this.priority = priority;
+        this.outcome = outcome;
+    }
+
+    /**
+     * A copy with a later outcome
+     */
+    JournalEntry withOutcome(NotificationOutcome outcome) {
+        return new JournalEntry(id, timestamp, title, subtitle, icon, theme,
+                priority, outcome);
+    }
+
+    /**
+     * Gets the number of the entry. Entries are numbered in the order they
+     * were written.
+     *
+     * @return the id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gets when the notification was asked for
+     *
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Gets the title
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Gets the subtitle
+     *
+     * @return the subtitle
+     */
+    public String getSubtitle() {
+        return subtitle;
+    }
+
+    /**
+     * Gets the icon, the {@link DisplayNotification.MessageIconType} name or
+     * {@link IconRegistry} key it was chosen by
+     *
+     * @return the icon name, or <code>null</code> if there was none or it
+     * was given as an image
+     */
+    public String getIcon() {
+        return icon;
+    }
+
+    /**
+     * Gets the theme, the preset or {@link ThemeRegistry} name it was chosen
+     * by
+     *
+     * @return the theme name, or <code>null</code> if it was given as a
+     * <code>ThemePackage</code>
+     */
+    public String getTheme() {
+        return theme;
+    }
+
+    /**
+     * Gets the priority
+     *
+     * @return the priority
+     */
+    public NotificationPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the last thing that happened to the notification
+     *
+     * @return the outcome
+     */
+    public NotificationOutcome getOutcome() {
+        return outcome;
+    }
+
+    @Override
+    public String toString() {
+        return new Date(timestamp) + " " + outcome + " " + title + ": " + subtitle;
+    }
+}
@@ -0,0 +1,1164 @@
+package com.github.lespaul361.commons;
+
+import com.notification.NotificationFactory;
+import com.theme.ThemePackage;
+import com.utils.Time;
+import java.awt.EventQueue;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.swing.ImageIcon;
+
+/**
+ * Long-lived engine that decides when notifications are shown and hands them
+ * to a {@link NotificationRenderer}. On a desktop this is a
+ * {@link JCommuniqueRenderer} that keeps one manager per location/theme pair,
+ * and on a JVM without a display it is a {@link HeadlessRenderer} that costs
+ * nothing.
+ * <p>
+ * Most callers use the engine returned by {@link #getDefault()}, which is
+ * what {@link DisplayNotification} uses. An engine can also be created and
+ * passed to {@link DisplayNotification.NotificationBuilder#showNotification(NotificationEngine)}.
+ * <p>
+ * Window work is handed to the event dispatch thread through a bounded
+ * {@link DispatchQueue} and sounds are played by a small bounded pool of
+ * named daemon threads. Both can be replaced using {@link Builder}. A
+ * headless renderer is called on the showing thread instead.
+ * <p>
+ * Notifications with the same title and subtitle, or the same key, that
+ * arrive close together are merged into the toast already on screen. It
+ * shows a count such as "(x17)" and stays on screen longer.
+ * <p>
+ * The number of notifications on screen and the rate they are shown at are
+ * limited. Notifications over the limits are handled by the
+ * {@link OverflowPolicy} and {@link #getPendingCount()} tells callers how
+ * many are waiting. Waiting notifications and sounds are handled in
+ * {@link NotificationPriority} order and the least important are dropped
+ * first.
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationEngine {
+
+    /**
+     * The number of titles listed in a grouped batch notification
+     */
+    private static final int MAX_GROUPED_TITLES = 3;
+
+    /**
+     * Runs tasks on the calling thread, used for headless renderers
+     */
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final NotificationMetrics NO_METRICS = new NotificationMetrics() {
+    };
+
+    private static volatile NotificationEngine defaultEngine;
+
+    private final NotificationFactory.Location location;
+    private final NotificationRenderer renderer;
+    private final NotificationMetrics metrics;
+    private final NotificationJournal journal;
+    private final DispatchQueue uiQueue;
+    private final DispatchQueue audioQueue;
+    private final ExecutorService ownedAudioExecutor;
+    private final Executor uiExecutor;
+    private final ScheduledThreadPoolExecutor timer;
+    private final long coalesceWindowNanos;
+    private final long updateIntervalNanos;
+    private final Map<String, ActiveNotification> coalescing = new HashMap<>();
+    private final TokenBucket bucket;
+    private final int maxVisible;
+    private final int pendingCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final PriorityBuffer<ActiveNotification> pending = new PriorityBuffer<>();
+    private int visibleCount = 0;
+    private long droppedCount = 0;
+    private int summarizedCount = 0;
+    private NotificationRequest summarizedRequest = null;
+    private boolean drainScheduled = false;
+    private final NotificationRenderer.Listener events
+            = new NotificationRenderer.Listener() {
+        @Override
+        public void shown(NotificationHandle handle) {
+            metrics.shown(System.nanoTime() - handle.getActive().getCreated());
+            if (journal != null) {
+                journal.outcome(handle.getActive(), NotificationOutcome.Shown);
+            }
+            handle.fireShown();
+        }
+
+        @Override
+        public void clicked(NotificationHandle handle) {
+            handle.fireClicked();
+            closed(handle.getActive(), NotificationOutcome.Clicked);
+        }
+
+        @Override
+        public void hidden(NotificationHandle handle) {
+            closed(handle.getActive(), NotificationOutcome.Closed);
+        }
+    };
+
+    /**
+     * Constructs a new <code>NotificationEngine</code> showing notifications
+     * in the bottom right corner of the screen
+     */
+    public NotificationEngine() {
+        this(NotificationFactory.Location.SOUTHEAST);
+    }
+
+    /**
+     * Constructs a new <code>NotificationEngine</code>
+     *
+     * @param location the default location to show notifications at
+     */
+    public NotificationEngine(NotificationFactory.Location location) {
+        this(new Builder().location(location));
+    }
+
+    private NotificationEngine(Builder builder) {
+        if (builder.location == null) {
+            throw new IllegalArgumentException("location cannot be null");
+        }
+        this.location = builder.location;
+        renderer = builder.renderer == null
+                ? NotificationRenderer.createDefault() : builder.renderer;
+        metrics = builder.metrics == null ? NO_METRICS : builder.metrics;
+        journal = builder.journal;
+        if (builder.uiExecutor == null && renderer.isHeadless()) {
+            uiExecutor = DIRECT;
+        } else if (builder.uiExecutor == null) {
+            uiExecutor = new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    EventQueue.invokeLater(command);
+                }
+            };
+        } else {
+            uiExecutor = builder.uiExecutor;
+        }
+        timer = new ScheduledThreadPoolExecutor(1,
+                new NamedThreadFactory("notification-timer"));
+        timer.setRemoveOnCancelPolicy(true);
+        coalesceWindowNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0, builder.coalesceWindow));
+        updateIntervalNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0, builder.updateInterval));
+        bucket = new TokenBucket(builder.ratePerSecond, builder.burst);
+        maxVisible = Math.max(1, builder.maxVisible);
+        pendingCapacity = Math.max(1, builder.queueCapacity);
+        overflowPolicy = builder.overflowPolicy == null ? OverflowPolicy.Queue
+                : builder.overflowPolicy;
+        Executor audioExecutor = builder.audioExecutor;
+        if (audioExecutor == null && renderer.isHeadless()) {
+            // nothing is played so there is no need for sound threads
+            ownedAudioExecutor = null;
+            audioExecutor = DIRECT;
+        } else if (audioExecutor == null) {
+            ownedAudioExecutor = Executors.newFixedThreadPool(
+                    builder.audioThreads,
+                    new NamedThreadFactory("notification-audio"));
+            audioExecutor = ownedAudioExecutor;
+        } else {
+            ownedAudioExecutor = null;
+        }
+        // the managers are not thread safe so all of the window work is done
+        // one task at a time on the event dispatch thread
+        uiQueue = new DispatchQueue(uiExecutor, 1, builder.queueCapacity,
+                builder.rejectionPolicy);
+        audioQueue = new DispatchQueue(audioExecutor, builder.audioThreads,
+                builder.queueCapacity, builder.rejectionPolicy);
+    }
+
+    /**
+     * Gets the shared engine used by {@link DisplayNotification}
+     *
+     * @return the default engine
+     */
+    public static NotificationEngine getDefault() {
+        NotificationEngine engine = defaultEngine;
+        if (engine == null) {
+            synchronized (NotificationEngine.class) {
+                engine = defaultEngine;
+                if (engine == null) {
+                    engine = new NotificationEngine();
+                    defaultEngine = engine;
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Replaces the shared engine used by {@link DisplayNotification}
+     *
+     * @param engine the engine to use
+     */
+    public static void setDefault(NotificationEngine engine) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine cannot be null");
+        }
+        synchronized (NotificationEngine.class) {
+            defaultEngine = engine;
+        }
+    }
+
+    /**
+     * Gets the location notifications are shown at when none is given
+     *
+     * @return the default location
+     */
+    public NotificationFactory.Location getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the renderer that draws the notifications of this engine
+     *
+     * @return the renderer
+     */
+    public NotificationRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Gets the number of notifications waiting to be shown. Callers that
+     * produce many notifications can use this to slow down.
+     *
+     * @return the number of waiting notifications
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size() + uiQueue.getQueueSize();
+        }
+    }
+
+    /**
+     * Gets the number of notifications on screen or on their way
+     *
+     * @return the number of visible notifications
+     */
+    public int getVisibleCount() {
+        synchronized (pending) {
+            return visibleCount;
+        }
+    }
+
+    /**
+     * Gets the number of notifications thrown away by the overflow policy
+     *
+     * @return the number of dropped notifications
+     */
+    public long getDroppedCount() {
+        synchronized (pending) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * Gets the number of notifications and sounds dropped because their queue
+     * was full
+     *
+     * @return the number of dropped tasks
+     */
+    public long getRejectedCount() {
+        return uiQueue.getRejectedCount() + audioQueue.getRejectedCount();
+    }
+
+    /**
+     * Stops the sound and timer threads created by this engine. Executors
+     * passed to the {@link Builder} are left for the caller to shut down.
+     */
+    public void shutdown() {
+        timer.shutdownNow();
+        if (ownedAudioExecutor != null) {
+            ownedAudioExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Shows a notification at the default location of this engine
+     *
+     * @param title the title of the notification
+     * @param subTitle the subtitle of the notification
+     * @param icon icon to use or <code>null</code> for a text notification
+     * @param time the amount of time to show the notification or
+     * <code>null</code> for 5 seconds
+     * @param soundClip a stream with the sound to play or <code>null</code>
+     * for no sound
+     * @param themePackage the theme to use
+     */
+    public void showNotification(String title, String subTitle, ImageIcon icon,
+            Time time, InputStream soundClip, ThemePackage themePackage) {
+        showNotification(title, subTitle, icon, time, soundClip, themePackage,
+                location);
+    }
+
+    /**
+     * Shows a notification
+     *
+     * @param title the title of the notification
+     * @param subTitle the subtitle of the notification
+     * @param icon icon to use or <code>null</code> for a text notification
+     * @param time the amount of time to show the notification or
+     * <code>null</code> for 5 seconds
+     * @param soundClip a stream with the sound to play or <code>null</code>
+     * for no sound
+     * @param themePackage the theme to use
+     * @param location where on the screen to show the notification or
+     * <code>null</code> for the default location
+     */
+    public void showNotification(String title, String subTitle, ImageIcon icon,
+            Time time, InputStream soundClip, ThemePackage themePackage,
+            NotificationFactory.Location location) {
+        show(new NotificationRequest(title, subTitle, icon, time, null,
+                soundClip, themePackage, location, null, null));
+    }
+
+    /**
+     * Shows a notification at the default location of this engine
+     *
+     * @param title the title of the notification
+     * @param subTitle the subtitle of the notification
+     * @param icon icon to use or <code>null</code> for a text notification
+     * @param time the amount of time to show the notification or
+     * <code>null</code> for 5 seconds
+     * @param sound the decoded sound to play or <code>null</code> for no sound
+     * @param themePackage the theme to use
+     */
+    public void showNotification(String title, String subTitle, ImageIcon icon,
+            Time time, DecodedSound sound, ThemePackage themePackage) {
+        showNotification(title, subTitle, icon, time, sound, themePackage,
+                location);
+    }
+
+    /**
+     * Shows a notification
+     *
+     * @param title the title of the notification
+     * @param subTitle the subtitle of the notification
+     * @param icon icon to use or <code>null</code> for a text notification
+     * @param time the amount of time to show the notification or
+     * <code>null</code> for 5 seconds
+     * @param sound the decoded sound to play or <code>null</code> for no sound
+     * @param themePackage the theme to use
+     * @param location where on the screen to show the notification or
+     * <code>null</code> for the default location
+     */
+    public void showNotification(String title, String subTitle, ImageIcon icon,
+            Time time, DecodedSound sound, ThemePackage themePackage,
+            NotificationFactory.Location location) {
+        show(new NotificationRequest(title, subTitle, icon, time, sound, null,
+                themePackage, location, null, null));
+    }
+
+    /**
+     * Shows several notifications together. Themes, icons and sounds for the
+     * whole batch are resolved in one pass, the windows are built in one go
+     * on the event dispatch thread and at most one sound is played.
+     *
+     * @param builders the notifications to show
+     * @param mode {@link BatchMode#Stacked} for a toast each or
+     * {@link BatchMode#Grouped} for one toast listing them all
+     */
+    public void showNotifications(
+            Collection<? extends DisplayNotification.NotificationBuilder> builders,
+            BatchMode mode) {
+        List<NotificationRequest> requests = new ArrayList<>(builders.size());
+        for (DisplayNotification.NotificationBuilder builder : builders) {
+            requests.add(builder.toRequest());
+        }
+        showAll(requests, mode);
+    }
+
+    /**
+     * Shows a notification without blocking. The future completes with a
+     * handle for the notification once its window is on screen, or is
+     * cancelled if the notification is dropped or closed first. A
+     * notification merged into one already on screen gets that one's handle.
+     *
+     * @param builder the notification to show
+     * @return a future for the shown notification
+     */
+    public CompletableFuture<NotificationHandle> showAsync(
+            DisplayNotification.NotificationBuilder builder) {
+        return show(builder.toRequest()).shown();
+    }
+
+    /**
+     * Shows a notification, or merges it into a matching one that is already
+     * on screen
+     *
+     * @return the handle of the notification it ended up in
+     */
+    NotificationHandle show(NotificationRequest request) {
+        ActiveNotification active = accept(request, false);
+        if (active.getRequest() == request) {
+            admit(active, null);
+        }
+        return active.getHandle();
+    }
+
+    /**
+     * Shows several notifications together. The windows that can be shown
+     * now are built in one pass on the event dispatch thread and at most one
+     * sound is played, the one of the most important notification.
+     */
+    void showAll(List<NotificationRequest> requests, BatchMode mode) {
+        if (requests.isEmpty()) {
+            return;
+        }
+        if (mode == BatchMode.Grouped && requests.size() > 1) {
+            show(group(requests));
+            return;
+        }
+        List<ActiveNotification> batch = new ArrayList<>(requests.size());
+        NotificationPriority highest = NotificationPriority.Low;
+        for (NotificationRequest request : requests) {
+            ActiveNotification active = accept(request, true);
+            if (active.getRequest() == request) {
+                admit(active, batch);
+            }
+            if (request.getPriority().compareTo(highest) > 0) {
+                highest = request.getPriority();
+            }
+        }
+        // only a notification opened now plays, not one that was merged,
+        // dropped or left waiting
+        NotificationRequest loudest = null;
+        for (ActiveNotification active : batch) {
+            NotificationRequest request = active.getRequest();
+            if (request.hasSound() && (loudest == null
+                    || request.getPriority().compareTo(loudest.getPriority()) > 0)) {
+                loudest = request;
+            }
+        }
+        if (loudest != null) {
+            playSound(loudest);
+        }
+        if (!batch.isEmpty()) {
+            uiQueue.execute(new DispatchQueue.Rejectable() {
+                @Override
+                public void run() {
+                    for (ActiveNotification active : batch) {
+                        open(active);
+                    }
+                }
+
+                @Override
+                public void rejected() {
+                    for (ActiveNotification active : batch) {
+                        drop(active);
+                    }
+                }
+            }, highest);
+        }
+    }
+
+    /**
+     * Makes one notification that stands for a whole batch
+     */
+    private static NotificationRequest group(List<NotificationRequest> requests) {
+        NotificationRequest first = requests.get(0);
+        NotificationRequest top = first;
+        NotificationRequest loudest = null;
+        int millis = 0;
+        boolean infinite = false;
+        StringBuilder subtitle = new StringBuilder();
+        for (int i = 0; i < requests.size(); i++) {
+            NotificationRequest request = requests.get(i);
+            if (request.getPriority().compareTo(top.getPriority()) > 0) {
+                top = request;
+            }
+            if (request.hasSound() && (loudest == null
+                    || request.getPriority().compareTo(loudest.getPriority()) > 0)) {
+                loudest = request;
+            }
+            infinite |= request.getTime().isInfinite();
+            millis = Math.max(millis, request.getTime().getMilliseconds());
+            if (i < MAX_GROUPED_TITLES) {
+                if (i > 0) {
+                    subtitle.append('\n');
+                }
+                subtitle.append(request.getTitle());
+            }
+        }
+        if (requests.size() > MAX_GROUPED_TITLES) {
+            subtitle.append("\nand ").append(requests.size() - MAX_GROUPED_TITLES)
+                    .append(" more");
+        }
+        return new NotificationRequest(requests.size() + " notifications",
+                subtitle.toString(), top.getIcon(),
+                infinite ? Time.infinite() : Time.milliseconds(millis),
+                loudest == null ? null : loudest.getSound(),
+                loudest == null ? null : loudest.getSoundStream(),
+                first.getThemePackage(), first.getLocation(), null,
+                top.getPriority());
+    }
+
+    /**
+     * Merges a notification into a matching one on screen or makes a new
+     * active notification for it
+     *
+     * @return the new notification, or the one on screen if it was merged
+     */
+    private ActiveNotification accept(NotificationRequest request,
+            boolean silent) {
+        metrics.submitted(request.getPriority());
+        ActiveNotification active;
+        if (coalesceWindowNanos > 0) {
+            String key = request.getCoalesceKey();
+            synchronized (coalescing) {
+                ActiveNotification existing = coalescing.get(key);
+                long now = System.nanoTime();
+                if (existing != null && !existing.isClosed()
+                        && now - existing.getLastSeen() <= coalesceWindowNanos) {
+                    existing.merge(now);
+                    metrics.merged();
+                    if (journal != null) {
+                        journal.merged(request);
+                    }
+                    // a waiting notification starts its timer when it opens
+                    existing.setTime(request.getTime());
+                    if (existing.isOpened()) {
+                        scheduleRemoval(existing, request.getTime());
+                    }
+                    refresh(existing);
+                    return existing;
+                }
+                active = new ActiveNotification(this, request, key, silent);
+                coalescing.put(key, active);
+            }
+        } else {
+            active = new ActiveNotification(this, request, null, silent);
+        }
+        if (journal != null) {
+            journal.submitted(active);
+        }
+        return active;
+    }
+
+    /**
+     * Shows a notification now if the on screen and rate limits allow it,
+     * otherwise applies the overflow policy. Notifications are opened and
+     * closed after the pending lock is let go, so the renderer and the
+     * handle futures are never called while it is held.
+     *
+     * @param batch if not <code>null</code> a notification that can be shown
+     * now is added to this list for the caller to open instead
+     */
+    private void admit(ActiveNotification active,
+            List<ActiveNotification> batch) {
+        List<ActiveNotification> ready = new ArrayList<>(1);
+        ActiveNotification dropped;
+        synchronized (pending) {
+            dropped = admitLocked(active, batch, ready);
+        }
+        if (dropped != null) {
+            closed(dropped, NotificationOutcome.Dropped);
+        }
+        dispatchAll(ready);
+    }
+
+    /**
+     * Does the work of {@link #admit} while holding the pending lock
+     *
+     * @param ready notifications to open once the lock is let go
+     * @return a notification to close as dropped once the lock is let go
+     */
+    private ActiveNotification admitLocked(ActiveNotification active,
+            List<ActiveNotification> batch, List<ActiveNotification> ready) {
+        if (pending.isEmpty() && tryTakePlace()) {
+            active.markAdmitted();
+            if (batch != null) {
+                batch.add(active);
+            } else {
+                ready.add(active);
+            }
+            return null;
+        }
+        OverflowPolicy policy = overflowPolicy;
+        if (policy == OverflowPolicy.Block && EventQueue.isDispatchThread()) {
+            // the event dispatch thread is what frees the places
+            policy = OverflowPolicy.Queue;
+        }
+        ActiveNotification dropped = null;
+        switch (policy) {
+            case Drop:
+                droppedCount++;
+                metrics.dropped();
+                return active;
+            case Summarize:
+                summarizedCount++;
+                summarizedRequest = active.getRequest();
+                dropped = active;
+                break;
+            case Block:
+                while (!tryTakePlace()) {
+                    try {
+                        long wait = visibleCount < maxVisible
+                                ? bucket.nanosUntilAvailable() : 0;
+                        if (wait > 0) {
+                            TimeUnit.NANOSECONDS.timedWait(pending, wait);
+                        } else {
+                            pending.wait(100);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        droppedCount++;
+                        metrics.dropped();
+                        return active;
+                    }
+                }
+                active.markAdmitted();
+                ready.add(active);
+                return null;
+            default:
+                NotificationPriority priority = active.getRequest().getPriority();
+                if (pending.size() >= pendingCapacity) {
+                    // the least important waiting notification goes first
+                    if (pending.lowestPriority().compareTo(priority) > 0) {
+                        droppedCount++;
+                        metrics.dropped();
+                        return active;
+                    }
+                    droppedCount++;
+                    metrics.dropped();
+                    dropped = pending.pollLowest(true);
+                }
+                pending.add(active, priority);
+                break;
+        }
+        scheduleDrain();
+        return dropped;
+    }
+
+    /**
+     * Takes an on screen place and a rate limit token. Must be called while
+     * holding the pending lock.
+     */
+    private boolean tryTakePlace() {
+        if (visibleCount >= maxVisible || !bucket.tryAcquire()) {
+            return false;
+        }
+        visibleCount++;
+        return true;
+    }
+
+    /**
+     * Takes waiting notifications while there is room. Must be called while
+     * holding the pending lock.
+     *
+     * @param ready the list to add the notifications to open to, once the
+     * lock is let go
+     */
+    private void drainPending(List<ActiveNotification> ready) {
+        while (!pending.isEmpty() && tryTakePlace()) {
+            ActiveNotification next = pending.poll();
+            next.markAdmitted();
+            ready.add(next);
+        }
+        if (pending.isEmpty() && summarizedCount > 0 && tryTakePlace()) {
+            NotificationRequest last = summarizedRequest;
+            String title = summarizedCount == 1 ? "1 more alert"
+                    : summarizedCount + " more alerts";
+            NotificationRequest summary = new NotificationRequest(title,
+                    "Latest: " + last.getTitle(), null, null, null, null,
+                    last.getThemePackage(), last.getLocation(), null,
+                    NotificationPriority.Low);
+            summarizedCount = 0;
+            summarizedRequest = null;
+            ActiveNotification active = new ActiveNotification(this, summary,
+                    null, false);
+            active.markAdmitted();
+            ready.add(active);
+        }
+        pending.notifyAll();
+        if (!pending.isEmpty() || summarizedCount > 0) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Makes sure the waiting notifications are looked at again once the rate
+     * limit allows another one. Must be called while holding the pending
+     * lock.
+     */
+    private void scheduleDrain() {
+        if (drainScheduled || visibleCount >= maxVisible) {
+            // a closing notification will drain
+            return;
+        }
+        drainScheduled = true;
+        long wait = Math.max(TimeUnit.MILLISECONDS.toNanos(1),
+                bucket.nanosUntilAvailable());
+        try {
+            timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    List<ActiveNotification> ready = new ArrayList<>();
+                    synchronized (pending) {
+                        drainScheduled = false;
+                        drainPending(ready);
+                    }
+                    dispatchAll(ready);
+                }
+            }, wait, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            drainScheduled = false;
+        }
+    }
+
+    /**
+     * Opens notifications that have been admitted. Must not be called while
+     * holding the pending lock.
+     */
+    private void dispatchAll(List<ActiveNotification> ready) {
+        for (ActiveNotification active : ready) {
+            if (!active.isClosed()) {
+                dispatch(active);
+            }
+        }
+    }
+
+    private void dispatch(ActiveNotification active) {
+        if (!active.isSilent()) {
+            playSound(active.getRequest());
+        }
+        uiQueue.execute(new DispatchQueue.Rejectable() {
+            @Override
+            public void run() {
+                open(active);
+            }
+
+            @Override
+            public void rejected() {
+                drop(active);
+            }
+        }, active.getRequest().getPriority());
+    }
+
+    /**
+     * Gives back the place of an admitted notification whose window task was
+     * dropped by the event dispatch queue. It is counted by
+     * {@link #getRejectedCount()}.
+     */
+    private void drop(ActiveNotification active) {
+        closed(active, NotificationOutcome.Dropped);
+    }
+
+    private void playSound(NotificationRequest request) {
+        DecodedSound sound = request.getSound();
+        InputStream soundStream = request.getSoundStream();
+        NotificationPriority priority = request.getPriority();
+        if (sound != null) {
+            audioQueue.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long start = System.nanoTime();
+                    soundResult(renderer.playSound(sound, priority), start);
+                }
+            }, priority);
+        } else if (soundStream != null) {
+            audioQueue.execute(new Runnable() {
+                @Override
+                public void run() {
+                    long start = System.nanoTime();
+                    soundResult(renderer.playSound(soundStream, priority), start);
+                }
+            }, priority);
+        }
+    }
+
+    /**
+     * Counts a sound as played or failed. A headless renderer has no sound
+     * device, so a sound it does not play is not a failure.
+     */
+    private void soundResult(boolean played, long start) {
+        if (played) {
+            metrics.soundPlayed(System.nanoTime() - start);
+        } else if (!renderer.isHeadless()) {
+            metrics.soundFailed();
+        }
+    }
+
+    /**
+     * Hands a notification to the renderer. Runs on the event dispatch
+     * thread unless the renderer is headless.
+     */
+    private void open(ActiveNotification active) {
+        if (!active.markOpened()) {
+            return;
+        }
+        renderer.show(active.getHandle(), events);
+        // removal is scheduled here instead of by the renderer so that it can
+        // be moved when more notifications are merged in
+        scheduleRemoval(active, active.getTime());
+    }
+
+    private void scheduleRemoval(ActiveNotification active, Time time) {
+        if (time.isInfinite()) {
+            active.setRemoval(null);
+            return;
+        }
+        active.setRemoval(timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                close(active, NotificationOutcome.Expired);
+            }
+        }, time.getMilliseconds(), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Copies the content of a notification into its window. Repaints are
+     * spaced by the update interval and changes made while one is waiting
+     * are shown together.
+     */
+    private void refresh(ActiveNotification active) {
+        long delay = active.scheduleRefresh(updateIntervalNanos, System.nanoTime());
+        if (delay < 0) {
+            return;
+        }
+        Runnable repaint = new Runnable() {
+            @Override
+            public void run() {
+                active.startRefresh(System.nanoTime());
+                if (active.isOpened() && !active.isClosed()) {
+                    renderer.update(active.getHandle());
+                }
+            }
+        };
+        if (delay == 0) {
+            uiExecutor.execute(repaint);
+            return;
+        }
+        try {
+            timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    uiExecutor.execute(repaint);
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            uiExecutor.execute(repaint);
+        }
+    }
+
+    /**
+     * Changes what a notification shows, on screen or waiting. A
+     * <code>null</code> value keeps the current one.
+     */
+    void update(ActiveNotification active, String title, String subtitle,
+            ImageIcon icon) {
+        if (active.isClosed()) {
+            return;
+        }
+        active.setContent(title, subtitle, icon);
+        refresh(active);
+    }
+
+    /**
+     * Keeps a notification on screen for the given time from now
+     */
+    void extend(ActiveNotification active, Time time) {
+        if (active.isClosed()) {
+            return;
+        }
+        active.setTime(time);
+        if (active.isOpened()) {
+            scheduleRemoval(active, time);
+        }
+    }
+
+    /**
+     * Slides a notification out
+     */
+    void close(ActiveNotification active) {
+        close(active, NotificationOutcome.Closed);
+    }
+
+    private void close(ActiveNotification active, NotificationOutcome outcome) {
+        if (!closed(active, outcome)) {
+            return;
+        }
+        uiExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (active.isOpened()) {
+                    renderer.hide(active.getHandle());
+                }
+            }
+        });
+    }
+
+    /**
+     * Forgets a notification that is going away and journals why
+     *
+     * @return <code>false</code> if it was already closed
+     */
+    private boolean closed(ActiveNotification active, NotificationOutcome outcome) {
+        if (!active.markClosed()) {
+            return false;
+        }
+        if (journal != null) {
+            journal.outcome(active, outcome);
+        }
+        if (active.getCoalesceKey() != null) {
+            synchronized (coalescing) {
+                if (coalescing.get(active.getCoalesceKey()) == active) {
+                    coalescing.remove(active.getCoalesceKey());
+                }
+            }
+        }
+        List<ActiveNotification> ready = new ArrayList<>();
+        synchronized (pending) {
+            if (active.isAdmitted()) {
+                visibleCount--;
+                drainPending(ready);
+            } else {
+                pending.remove(active);
+            }
+        }
+        active.getHandle().fireDismissed();
+        dispatchAll(ready);
+        return true;
+    }
+
+    /**
+     * Builder for making a <code>NotificationEngine</code>. By default
+     * notifications are shown in the bottom right corner, sounds are played
+     * by 2 threads and each queue holds 256 tasks, dropping the oldest when
+     * full.
+     */
+    public static class Builder {
+
+        private NotificationFactory.Location location
+                = NotificationFactory.Location.SOUTHEAST;
+        private NotificationRenderer renderer = null;
+        private NotificationMetrics metrics = null;
+        private NotificationJournal journal = null;
+        private Executor uiExecutor = null;
+        private Executor audioExecutor = null;
+        private int audioThreads = 2;
+        private int queueCapacity = 256;
+        private RejectionPolicy rejectionPolicy = RejectionPolicy.DropOldest;
+        private long coalesceWindow = 1000;
+        private long updateInterval = 100;
+        private double ratePerSecond = 5;
+        private int burst = 10;
+        private int maxVisible = 10;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.Queue;
+
+        /**
+         * The default location to show notifications at
+         *
+         * @param location the location
+         * @return this builder
+         */
+        public Builder location(NotificationFactory.Location location) {
+            this.location = location;
+            return this;
+        }
+
+        /**
+         * What draws the notifications and plays their sounds
+         *
+         * @param renderer the renderer. Default is a
+         * {@link HeadlessRenderer} when there is no display and a
+         * {@link JCommuniqueRenderer} otherwise
+         * @return this builder
+         */
+        public Builder renderer(NotificationRenderer renderer) {
+            this.renderer = renderer;
+            return this;
+        }
+
+        /**
+         * What is told about notifications being submitted, shown and
+         * dropped and sounds being played, such as a
+         * {@link NotificationStats}
+         *
+         * @param metrics the metrics listener. Default is none
+         * @return this builder
+         */
+        public Builder metrics(NotificationMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Where every notification and what happened to it is recorded
+         *
+         * @param journal the journal. Default is none
+         * @return this builder
+         */
+        public Builder journal(NotificationJournal journal) {
+            this.journal = journal;
+            return this;
+        }
+
+        /**
+         * The executor that runs the window work. It must run tasks on the
+         * event dispatch thread unless the renderer is headless. Default is
+         * <code>EventQueue::invokeLater</code>, or the calling thread for a
+         * headless renderer
+         *
+         * @param uiExecutor the executor for window work
+         * @return this builder
+         */
+        public Builder uiExecutor(Executor uiExecutor) {
+            this.uiExecutor = uiExecutor;
+            return this;
+        }
+
+        /**
+         * The executor that plays sounds, such as a virtual thread executor.
+         * Default is a pool of named daemon threads owned by the engine, or
+         * the calling thread for a headless renderer
+         *
+         * @param audioExecutor the executor for sounds
+         * @return this builder
+         */
+        public Builder audioExecutor(Executor audioExecutor) {
+            this.audioExecutor = audioExecutor;
+            return this;
+        }
+
+        /**
+         * The most sounds to start at the same time
+         *
+         * @param audioThreads the number of sound threads. Default is 2
+         * @return this builder
+         */
+        public Builder audioThreads(int audioThreads) {
+            this.audioThreads = audioThreads;
+            return this;
+        }
+
+        /**
+         * The most notifications waiting for room on screen, and separately
+         * the most windows and sounds, that can wait to be handled
+         *
+         * @param queueCapacity the size of each queue. Default is 256
+         * @return this builder
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * What to do when a queue is full
+         *
+         * @param rejectionPolicy the policy. Default is
+         * {@link RejectionPolicy#DropOldest}
+         * @return this builder
+         */
+        public Builder rejectionPolicy(RejectionPolicy rejectionPolicy) {
+            this.rejectionPolicy = rejectionPolicy;
+            return this;
+        }
+
+        /**
+         * How long after a notification another one with the same title and
+         * subtitle, or the same key, is merged into it instead of shown. A
+         * merged notification shows a count after its title and stays on
+         * screen longer.
+         *
+         * @param millis the window in milliseconds or 0 to never merge.
+         * Default is 1000
+         * @return this builder
+         */
+        public Builder coalesceWindow(long millis) {
+            this.coalesceWindow = millis;
+            return this;
+        }
+
+        /**
+         * The least time between repaints of a notification changed through
+         * its {@link NotificationHandle}. Changes made in between are shown
+         * together, so a fast progress counter costs at most one repaint per
+         * interval.
+         *
+         * @param millis the interval in milliseconds or 0 for no limit.
+         * Default is 100
+         * @return this builder
+         */
+        public Builder updateInterval(long millis) {
+            this.updateInterval = millis;
+            return this;
+        }
+
+        /**
+         * How many notifications can be shown each second on average
+         *
+         * @param ratePerSecond the rate or 0 for no limit. Default is 5
+         * @return this builder
+         */
+        public Builder ratePerSecond(double ratePerSecond) {
+            this.ratePerSecond = ratePerSecond;
+            return this;
+        }
+
+        /**
+         * How many notifications can be shown at once before the rate limit
+         * applies
+         *
+         * @param burst the burst size. Default is 10
+         * @return this builder
+         */
+        public Builder burst(int burst) {
+            this.burst = burst;
+            return this;
+        }
+
+        /**
+         * The most notifications on screen at the same time
+         *
+         * @param maxVisible the limit. Default is 10
+         * @return this builder
+         */
+        public Builder maxVisible(int maxVisible) {
+            this.maxVisible = maxVisible;
+            return this;
+        }
+
+        /**
+         * What to do with notifications that cannot be shown yet
+         *
+         * @param overflowPolicy the policy. Default is
+         * {@link OverflowPolicy#Queue}, holding up to the queue capacity and
+         * then dropping the oldest
+         * @return this builder
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
+        /**
+         * Makes the engine
+         *
+         * @return a new engine
+         */
+        public NotificationEngine build() {
+            return new NotificationEngine(this);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.lespaul361.commons;
+
+import com.notification.NotificationFactory;
+import com.theme.ThemePackage;
+import com.utils.Time;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.ImageIcon;
+
+/**
+ * A notification shown through a {@link NotificationEngine}. It can be used
+ * to close, change or extend the notification and to wait for it to be
+ * clicked or to go away without blocking.
+ * <p>
+ * Notifications that are merged into one already on screen share its handle.
+ *
+ * @author Charles Hamilton
+ */
+public final class NotificationHandle {
+
+    private final NotificationEngine engine;
+    private final ActiveNotification active;
+    private final CompletableFuture<NotificationHandle> shown
+            = new CompletableFuture<>();
+    private final CompletableFuture<NotificationHandle> dismissed
+            = new CompletableFuture<>();
+    private final CompletableFuture<NotificationHandle> clicked
+            = new CompletableFuture<>();
+
+    NotificationHandle(NotificationEngine engine, ActiveNotification active) {
+        this.engine = engine;
+        this.active = active;
+    }
+
+    /**
+     * Slides the notification out, or keeps it from being shown if it is
+     * still waiting
+     */
+    public void close() {
+        engine.close(active);
+    }
+
+    /**
+     * Changes the title and subtitle of the notification in place. The
+     * window is repainted without being rebuilt or slid in again.
+     *
+     * @param title the new title or <code>null</code> to keep the current one
+     * @param subtitle the new subtitle or <code>null</code> to keep the
+     * current one
+     */
+    public void update(String title, String subtitle) {
+        engine.update(active, title, subtitle, null);
+    }
+
+    /**
+     * Changes the title, subtitle and icon of the notification in place. A
+     * notification already on screen without an icon keeps showing none.
+     *
+     * @param title the new title or <code>null</code> to keep the current one
+     * @param subtitle the new subtitle or <code>null</code> to keep the
+     * current one
+     * @param icon the new icon or <code>null</code> to keep the current one
+     */
+    public void update(String title, String subtitle, ImageIcon icon) {
+        engine.update(active, title, subtitle, icon);
+    }
+
+    /**
+     * Sets the time left on screen to the given time from now instead of
+     * the time it was shown with
+     *
+     * @param time how much longer to show the notification or
+     * <code>Time.infinite()</code> to keep it until it is closed
+     */
+    public void extend(Time time) {
+        if (time == null) {
+            throw new IllegalArgumentException("time cannot be null");
+        }
+        engine.extend(active, time);
+    }
+
+    /**
+     * Gets the title to show, with the count of merged notifications
+     *
+     * @return the title
+     */
+    public String getTitle() {
+        return active.getDisplayTitle();
+    }
+
+    /**
+     * Gets the subtitle to show
+     *
+     * @return the subtitle
+     */
+    public String getSubtitle() {
+        return active.getSubtitle();
+    }
+
+    /**
+     * Gets the icon to show
+     *
+     * @return the icon or <code>null</code> for a text notification
+     */
+    public ImageIcon getIcon() {
+        return active.getIcon();
+    }
+
+    /**
+     * Gets the theme to show the notification with
+     *
+     * @return the theme or <code>null</code> for the JCommunique default
+     */
+    public ThemePackage getThemePackage() {
+        return active.getRequest().getThemePackage();
+    }
+
+    /**
+     * Gets where on the screen the notification is shown
+     *
+     * @return the location
+     */
+    public NotificationFactory.Location getLocation() {
+        NotificationFactory.Location location = active.getRequest().getLocation();
+        return location == null ? engine.getLocation() : location;
+    }
+
+    /**
+     * Gets the priority of the notification
+     *
+     * @return the priority
+     */
+    public NotificationPriority getPriority() {
+        return active.getRequest().getPriority();
+    }
+
+    /**
+     * Whether the notification has gone away or was never shown
+     *
+     * @return <code>true</code> if it is closed
+     */
+    public boolean isClosed() {
+        return active.isClosed();
+    }
+
+    /**
+     * Completes when the window is on screen. It is cancelled if the
+     * notification is dropped or closed before it is shown.
+     *
+     * @return a future for the notification being shown
+     */
+    public CompletableFuture<NotificationHandle> shown() {
+        return shown;
+    }
+
+    /**
+     * Completes when the notification goes away for any reason, timing out,
+     * being clicked, being closed or being dropped
+     *
+     * @return a future for the notification going away
+     */
+    public CompletableFuture<NotificationHandle> dismissed() {
+        return dismissed;
+    }
+
+    /**
+     * Completes when the notification is clicked. It is cancelled if the
+     * notification goes away without being clicked.
+     *
+     * @return a future for the notification being clicked
+     */
+    public CompletableFuture<NotificationHandle> clicked() {
+        return clicked;
+    }
+
+    ActiveNotification getActive() {
+        return active;
+    }
+
+    void fireShown() {
+        shown.complete(this);
+    }
+
+    void fireClicked() {
+        clicked.complete(this);
+    }
+
+    /**
+     * Settles every future once the notification has gone away
+     */
+    void fireDismissed() {
+        shown.cancel(false);
+        clicked.cancel(false);
+        dismissed.complete(this);
+    }
+}
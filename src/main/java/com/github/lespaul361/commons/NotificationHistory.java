@@ -0,0 +1,197 @@
+package com.github.lespaul361.commons;
+
+import java.awt.BorderLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Lists the notifications in a {@link NotificationJournal}, newest first.
+ * The table only draws the rows in view, so a journal with many thousands
+ * of entries scrolls as fast as a short one. The journal is read on a
+ * background thread every few seconds while the panel is showing.
+ * <pre>
+ * NotificationHistory.showWindow(journal);
+ * </pre>
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationHistory extends JPanel {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * How often the journal is read again
+     */
+    private static final int REFRESH_MILLIS = 2000;
+
+    private static final String[] COLUMNS = {"Time", "Outcome", "Priority",
+        "Title", "Subtitle", "Icon", "Theme"};
+
+    private final NotificationJournal journal;
+    private final EntryModel model = new EntryModel();
+    private final JLabel status = new JLabel(" ");
+    private final Timer refreshTimer;
+    private boolean loading = false;
+
+    /**
+     * Constructs a new <code>NotificationHistory</code>
+     *
+     * @param journal the journal to list
+     */
+    public NotificationHistory(NotificationJournal journal) {
+        super(new BorderLayout());
+        this.journal = journal;
+        JTable table = new JTable(model);
+        table.setAutoCreateRowSorter(true);
+        table.setFillsViewportHeight(true);
+        // a fixed height lets the table work out which rows are in view
+        table.setRowHeight(table.getFontMetrics(table.getFont()).getHeight() + 4);
+        table.getColumnModel().getColumn(0).setPreferredWidth(140);
+        table.getColumnModel().getColumn(3).setPreferredWidth(200);
+        table.getColumnModel().getColumn(4).setPreferredWidth(300);
+        add(new JScrollPane(table), BorderLayout.CENTER);
+        JButton refresh = new JButton("Refresh");
+        refresh.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+        JPanel bottom = new JPanel(new BorderLayout());
+        bottom.add(status, BorderLayout.CENTER);
+        bottom.add(refresh, BorderLayout.EAST);
+        add(bottom, BorderLayout.SOUTH);
+        refreshTimer = new Timer(REFRESH_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                refresh();
+            }
+        });
+    }
+
+    /**
+     * Opens a window listing a journal
+     *
+     * @param journal the journal to list
+     * @return the window
+     */
+    public static JFrame showWindow(NotificationJournal journal) {
+        JFrame frame = new JFrame("Notification History");
+        frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        frame.setContentPane(new NotificationHistory(journal));
+        frame.setSize(900, 500);
+        frame.setLocationByPlatform(true);
+        frame.setVisible(true);
+        return frame;
+    }
+
+    /**
+     * Reads the journal again on a background thread
+     */
+    public void refresh() {
+        if (loading) {
+            return;
+        }
+        loading = true;
+        new SwingWorker<List<JournalEntry>, Void>() {
+            @Override
+            protected List<JournalEntry> doInBackground() {
+                List<JournalEntry> entries = journal.getEntries();
+                Collections.reverse(entries);
+                return entries;
+            }
+
+            @Override
+            protected void done() {
+                loading = false;
+                try {
+                    List<JournalEntry> entries = get();
+                    model.setEntries(entries);
+                    status.setText(entries.size() + " notifications");
+                } catch (Exception e) {
+                    status.setText("Could not read the journal: " + e);
+                }
+            }
+        }.execute();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Gives the table the cells of the rows it draws
+     */
+    private static final class EntryModel extends AbstractTableModel {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SimpleDateFormat format
+                = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        private List<JournalEntry> entries = Collections.emptyList();
+
+        void setEntries(List<JournalEntry> entries) {
+            this.entries = entries;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return entries.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            JournalEntry entry = entries.get(row);
+            switch (column) {
+                case 0:
+                    return format.format(new Date(entry.getTimestamp()));
+                case 1:
+                    return entry.getOutcome();
+                case 2:
+                    return entry.getPriority();
+                case 3:
+                    return entry.getTitle();
+                case 4:
+                    return entry.getSubtitle();
+                case 5:
+                    return entry.getIcon();
+                default:
+                    return entry.getTheme();
+            }
+        }
+    }
+}
@@ -0,0 +1,711 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+import com.github.lespaul361.commons.DisplayNotification.NotificationBuilder;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a record of every notification an engine handles, so alerts shown
+ * while nobody was looking can be read back or shown again. Give a journal
+ * to {@link NotificationEngine.Builder#journal(NotificationJournal)}.
+ * <p>
+ * The journal is a directory of fixed size segment files that are memory
+ * mapped and only ever appended to. The engine hands each record to a
+ * writer thread through a bounded queue, so recording costs a queue offer on
+ * the calling thread. If the queue is full the record is counted as lost
+ * instead of blocking. When a segment is full a new one is started, and when
+ * there are more than <code>maxSegments</code> the older segments are
+ * compacted: each notification is kept once with its final outcome and the
+ * oldest are dropped until they fit in half of the segments.
+ * <p>
+ * Segment files that are still mapped cannot be deleted on Windows, so
+ * compaction may fail there until the old mappings are collected. It is
+ * tried again on the next rotation.
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationJournal implements Closeable {
+
+    /**
+     * The size of a segment file when none is given
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    /**
+     * The most segments kept when no limit is given
+     */
+    public static final int DEFAULT_MAX_SEGMENTS = 8;
+
+    private static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    private static final int MAGIC = 0x4e4a4e4c;
+    private static final int VERSION = 1;
+    private static final int HEADER = 8;
+    private static final byte ENTRY = 1;
+    private static final byte OUTCOME = 2;
+    private static final int MAX_STRING = 4096;
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".journal";
+    private static final NotificationOutcome[] OUTCOMES = NotificationOutcome.values();
+    private static final NotificationPriority[] PRIORITIES
+            = NotificationPriority.values();
+
+    private final File dir;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final AtomicLong nextId;
+    private final BlockingQueue<Record> queue
+            = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong lostCount = new AtomicLong();
+    private final Thread writer;
+    private final ByteBuffer scratch = ByteBuffer.allocate(MIN_SEGMENT_SIZE);
+    /**
+     * Used by {@link #compact()}, which runs while {@link #scratch} holds the
+     * record that filled the segment
+     */
+    private final ByteBuffer compactScratch = ByteBuffer.allocate(MIN_SEGMENT_SIZE);
+    private volatile List<Segment> segments;
+    private volatile boolean closed = false;
+    private long writtenCount = 0;
+    private long compactionCount = 0;
+
+    private NotificationJournal(File dir, int segmentSize, int maxSegments,
+            List<Segment> segments, long nextId) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.segments = segments;
+        this.nextId = new AtomicLong(nextId);
+        writer = new NamedThreadFactory("notification-journal").newThread(
+                new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        });
+        writer.start();
+    }
+
+    /**
+     * Opens the journal in a directory with 4 MB segments, keeping at most 8
+     *
+     * @param dir the directory, made if it does not exist
+     * @return the journal
+     * @throws IOException if the directory or a segment cannot be read
+     */
+    public static NotificationJournal open(File dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Opens the journal in a directory
+     *
+     * @param dir the directory, made if it does not exist
+     * @param segmentSize the size of each segment file in bytes, at least
+     * 64 KB
+     * @param maxSegments the most segments kept before the older ones are
+     * compacted, at least 2
+     * @return the journal
+     * @throws IOException if the directory or a segment cannot be read
+     */
+    public static NotificationJournal open(File dir, int segmentSize,
+            int maxSegments) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("segmentSize must be at least "
+                    + MIN_SEGMENT_SIZE);
+        }
+        if (maxSegments < 2) {
+            throw new IllegalArgumentException("maxSegments must be at least 2");
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot make journal directory " + dir);
+        }
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long seq = sequence(file.getName(), SUFFIX + ".tmp");
+                if (seq < 0) {
+                    continue;
+                }
+                // left over from a compaction that did not finish; it is
+                // only the copy if the segment it replaces is gone
+                File done = segmentFile(dir, seq, false);
+                if (done.exists()) {
+                    Files.deleteIfExists(file.toPath());
+                } else {
+                    Files.move(file.toPath(), done.toPath(),
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        }
+        List<Segment> segments = new ArrayList<>();
+        files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long seq = sequence(file.getName(), SUFFIX);
+                if (seq >= 0) {
+                    segments.add(Segment.open(seq, file));
+                }
+            }
+        }
+        Collections.sort(segments, new Comparator<Segment>() {
+            @Override
+            public int compare(Segment a, Segment b) {
+                return Long.compare(a.seq, b.seq);
+            }
+        });
+        long lastId = 0;
+        for (Segment segment : segments) {
+            lastId = Math.max(lastId, segment.lastId);
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(1, segmentFile(dir, 1, false), segmentSize));
+        }
+        return new NotificationJournal(dir, segmentSize, maxSegments,
+                Collections.unmodifiableList(segments), lastId + 1);
+    }
+
+    /**
+     * Records a notification the engine accepted
+     */
+    void submitted(ActiveNotification active) {
+        long id = nextId.getAndIncrement();
+        active.setJournalId(id);
+        offer(new Record(ENTRY, entry(id, active.getRequest(),
+                NotificationOutcome.Pending)));
+    }
+
+    /**
+     * Records a notification that was merged into one on screen
+     */
+    void merged(NotificationRequest request) {
+        offer(new Record(ENTRY, entry(nextId.getAndIncrement(), request,
+                NotificationOutcome.Merged)));
+    }
+
+    /**
+     * Records what happened to a notification
+     */
+    void outcome(ActiveNotification active, NotificationOutcome outcome) {
+        long id = active.getJournalId();
+        if (id == 0) {
+            // not journaled, such as a summary made by the engine
+            return;
+        }
+        offer(new Record(OUTCOME, new JournalEntry(id, System.currentTimeMillis(),
+                null, null, null, null, null, outcome)));
+    }
+
+    /**
+     * Gets every notification kept, oldest first, each with its latest
+     * outcome. Records still waiting for the writer thread are not included.
+     *
+     * @return the entries
+     */
+    public List<JournalEntry> getEntries() {
+        Map<Long, JournalEntry> entries = new LinkedHashMap<>();
+        for (Segment segment : segments) {
+            read(segment.buffer, segment.end, entries);
+        }
+        List<JournalEntry> list = new ArrayList<>(entries.values());
+        Collections.sort(list, new Comparator<JournalEntry>() {
+            @Override
+            public int compare(JournalEntry a, JournalEntry b) {
+                return Long.compare(a.getId(), b.getId());
+            }
+        });
+        return list;
+    }
+
+    /**
+     * Gets the latest notifications, oldest first
+     *
+     * @param max the most entries to get
+     * @return the entries
+     */
+    public List<JournalEntry> getRecent(int max) {
+        List<JournalEntry> entries = getEntries();
+        return entries.subList(Math.max(0, entries.size() - max), entries.size());
+    }
+
+    /**
+     * Gets the notifications asked for within a time range, oldest first
+     *
+     * @param fromMillis the start of the range, inclusive
+     * @param toMillis the end of the range, exclusive
+     * @return the entries
+     */
+    public List<JournalEntry> query(long fromMillis, long toMillis) {
+        List<JournalEntry> result = new ArrayList<>();
+        for (JournalEntry entry : getEntries()) {
+            if (entry.getTimestamp() >= fromMillis && entry.getTimestamp() < toMillis) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Shows again the notifications since a time that were not clicked.
+     * Merged repeats are left out.
+     *
+     * @param engine the engine to show them with
+     * @param sinceMillis the time to start from
+     * @param mode how to show them together
+     * @return the number of notifications shown again
+     */
+    public int replay(NotificationEngine engine, long sinceMillis, BatchMode mode) {
+        List<NotificationBuilder> builders = new ArrayList<>();
+        for (JournalEntry entry : query(sinceMillis, Long.MAX_VALUE)) {
+            if (entry.getOutcome() == NotificationOutcome.Clicked
+                    || entry.getOutcome() == NotificationOutcome.Merged) {
+                continue;
+            }
+            builders.add(toBuilder(entry));
+        }
+        if (!builders.isEmpty()) {
+            engine.showNotifications(builders, mode);
+        }
+        return builders.size();
+    }
+
+    /**
+     * Waits until every record handed to the journal so far is written
+     *
+     * @param timeout the longest time to wait in milliseconds
+     * @return <code>true</code> if everything was written
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public boolean flush(long timeout) throws InterruptedException {
+        long target = queuedCount.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        synchronized (this) {
+            while (writtenCount < target) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of records dropped because the writer could not keep
+     * up or the journal was closed
+     *
+     * @return the number of lost records
+     */
+    public long getLostCount() {
+        return lostCount.get();
+    }
+
+    /**
+     * Gets the number of segment files in use
+     *
+     * @return the number of segments
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Gets the number of times older segments were compacted
+     *
+     * @return the number of compactions
+     */
+    public synchronized long getCompactionCount() {
+        return compactionCount;
+    }
+
+    /**
+     * Writes what is waiting and stops the writer thread
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void offer(Record record) {
+        if (closed || !queue.offer(record)) {
+            lostCount.incrementAndGet();
+            return;
+        }
+        queuedCount.incrementAndGet();
+    }
+
+    private void writeLoop() {
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Record record = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (record == null) {
+                    continue;
+                }
+                int count = 0;
+                do {
+                    write(record);
+                    count++;
+                } while ((record = queue.poll()) != null);
+                Segment active = segments.get(segments.size() - 1);
+                active.end = active.position;
+                synchronized (this) {
+                    writtenCount += count;
+                    notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // stopped
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Notification journal stopped: " + e);
+            e.printStackTrace(System.out);
+        } finally {
+            Segment active = segments.get(segments.size() - 1);
+            active.end = active.position;
+            active.buffer.force();
+        }
+    }
+
+    /**
+     * Appends a record to the active segment. Only called on the writer
+     * thread.
+     */
+    private void write(Record record) throws IOException {
+        scratch.clear();
+        encode(record.type, record.entry, scratch);
+        scratch.flip();
+        Segment active = segments.get(segments.size() - 1);
+        if (active.buffer.capacity() - active.position < scratch.remaining()) {
+            active = rotate(active);
+        }
+        ByteBuffer out = active.buffer.duplicate();
+        out.position(active.position);
+        out.put(scratch);
+        active.position = out.position();
+    }
+
+    /**
+     * Starts a new segment, compacting the older ones if there are too many
+     */
+    private Segment rotate(Segment full) throws IOException {
+        full.end = full.position;
+        full.buffer.force();
+        Segment next = Segment.create(full.seq + 1,
+                segmentFile(dir, full.seq + 1, false), segmentSize);
+        List<Segment> list = new ArrayList<>(segments);
+        list.add(next);
+        segments = Collections.unmodifiableList(list);
+        if (list.size() > maxSegments) {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.err.println("Could not compact notification journal: " + e);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Rewrites every segment but the active one with each notification once
+     * and its final outcome, keeping the newest that fit in half of the
+     * segments
+     */
+    private void compact() throws IOException {
+        List<Segment> current = segments;
+        List<Segment> old = current.subList(0, current.size() - 1);
+        Map<Long, JournalEntry> merged = new LinkedHashMap<>();
+        for (Segment segment : old) {
+            read(segment.buffer, segment.end, merged);
+        }
+        int keep = Math.max(1, maxSegments / 2);
+        int room = segmentSize - HEADER;
+        // pack from the newest back so the oldest are the ones left out
+        ArrayDeque<List<byte[]>> packed = new ArrayDeque<>();
+        List<JournalEntry> entries = new ArrayList<>(merged.values());
+        List<byte[]> page = new ArrayList<>();
+        int used = 0;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            compactScratch.clear();
+            encode(ENTRY, entries.get(i), compactScratch);
+            byte[] bytes = new byte[compactScratch.position()];
+            compactScratch.flip();
+            compactScratch.get(bytes);
+            if (used + bytes.length > room) {
+                packed.addFirst(page);
+                if (packed.size() == keep) {
+                    page = null;
+                    break;
+                }
+                page = new ArrayList<>();
+                used = 0;
+            }
+            page.add(bytes);
+            used += bytes.length;
+        }
+        if (page != null && !page.isEmpty()) {
+            packed.addFirst(page);
+        }
+        List<Segment> rewritten = new ArrayList<>();
+        int n = 0;
+        for (List<byte[]> records : packed) {
+            long seq = old.get(n++).seq;
+            File tmp = segmentFile(dir, seq, true);
+            Segment segment = Segment.create(seq, tmp, segmentSize);
+            ByteBuffer out = segment.buffer.duplicate();
+            out.position(HEADER);
+            for (int i = records.size() - 1; i >= 0; i--) {
+                out.put(records.get(i));
+            }
+            segment.position = out.position();
+            segment.end = segment.position;
+            segment.buffer.force();
+            rewritten.add(segment);
+        }
+        // each rewritten segment takes the place of an old one, so there is
+        // always a whole copy of the history on disk
+        List<Segment> list = new ArrayList<>();
+        for (Segment segment : rewritten) {
+            File file = segmentFile(dir, segment.seq, false);
+            Files.move(segment.file.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+            list.add(segment.renamed(file));
+        }
+        for (Segment segment : old.subList(rewritten.size(), old.size())) {
+            Files.delete(segment.file.toPath());
+        }
+        list.add(current.get(current.size() - 1));
+        segments = Collections.unmodifiableList(list);
+        synchronized (this) {
+            compactionCount++;
+        }
+    }
+
+    private static JournalEntry entry(long id, NotificationRequest request,
+            NotificationOutcome outcome) {
+        return new JournalEntry(id, System.currentTimeMillis(), request.getTitle(),
+                request.getSubtitle(), request.getIconName(),
+                request.getThemeName(), request.getPriority(), outcome);
+    }
+
+    private static NotificationBuilder toBuilder(JournalEntry entry) {
+        NotificationBuilder builder = new NotificationBuilder(entry.getTitle(),
+                entry.getSubtitle()).priority(entry.getPriority());
+        String icon = entry.getIcon();
+        if (icon != null) {
+            try {
+                builder.icon(MessageIconType.valueOf(icon));
+            } catch (IllegalArgumentException e) {
+                builder.icon(icon);
+            }
+        }
+        if (entry.getTheme() != null) {
+            builder.theme(entry.getTheme());
+        }
+        return builder;
+    }
+
+    /**
+     * Writes a record, the length first
+     */
+    private static void encode(byte type, JournalEntry entry, ByteBuffer out) {
+        int start = out.position();
+        out.putInt(0);
+        out.put(type);
+        out.putLong(entry.getId());
+        out.putLong(entry.getTimestamp());
+        out.put((byte) entry.getOutcome().ordinal());
+        if (type == ENTRY) {
+            out.put((byte) entry.getPriority().ordinal());
+            putString(out, entry.getTitle());
+            putString(out, entry.getSubtitle());
+            putString(out, entry.getIcon());
+            putString(out, entry.getTheme());
+        }
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Reads the records in a segment up to <code>end</code>, merging outcome
+     * records into the entries they belong to
+     */
+    private static long read(ByteBuffer buffer, int end,
+            Map<Long, JournalEntry> entries) {
+        ByteBuffer in = buffer.duplicate();
+        in.position(HEADER);
+        long lastId = 0;
+        while (in.position() + 4 <= end) {
+            int length = in.getInt();
+            if (length <= 0 || in.position() + length > end) {
+                break;
+            }
+            int next = in.position() + length;
+            byte type = in.get();
+            long id = in.getLong();
+            long timestamp = in.getLong();
+            NotificationOutcome outcome = OUTCOMES[in.get()];
+            lastId = Math.max(lastId, id);
+            if (type == ENTRY) {
+                NotificationPriority priority = PRIORITIES[in.get()];
+                entries.put(id, new JournalEntry(id, timestamp, getString(in),
+                        getString(in), getString(in), getString(in), priority,
+                        outcome));
+            } else if (type == OUTCOME) {
+                JournalEntry entry = entries.get(id);
+                if (entry != null) {
+                    entries.put(id, entry.withOutcome(outcome));
+                }
+            }
+            in.position(next);
+        }
+        return lastId;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        if (value == null) {
+            out.putShort((short) -1);
+            return;
+        }
+        if (value.length() > MAX_STRING) {
+            value = value.substring(0, MAX_STRING);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the sequence number from the name of a segment file
+     *
+     * @return the number or -1 if the name is not one of ours
+     */
+    private static long sequence(String name, String suffix) {
+        if (!name.startsWith(PREFIX) || !name.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            long seq = Long.parseLong(name.substring(PREFIX.length(),
+                    name.length() - suffix.length()));
+            return seq > 0 ? seq : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static File segmentFile(File dir, long seq, boolean temporary) {
+        return new File(dir, String.format("%s%010d%s%s", PREFIX, seq, SUFFIX,
+                temporary ? ".tmp" : ""));
+    }
+
+    /**
+     * A record waiting for the writer thread
+     */
+    private static final class Record {
+
+        private final byte type;
+        private final JournalEntry entry;
+
+        Record(byte type, JournalEntry entry) {
+            this.type = type;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * One mapped segment file. <code>position</code> is only used by the
+     * writer thread; readers stop at <code>end</code>.
+     */
+    private static final class Segment {
+
+        private final long seq;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final long lastId;
+        private int position;
+        private volatile int end;
+
+        Segment(long seq, File file, MappedByteBuffer buffer, int end, long lastId) {
+            this.seq = seq;
+            this.file = file;
+            this.buffer = buffer;
+            this.position = end;
+            this.end = end;
+            this.lastId = lastId;
+        }
+
+        static Segment create(long seq, File file, int size) throws IOException {
+            // a new segment starts zeroed so its end can be found again
+            Files.deleteIfExists(file.toPath());
+            MappedByteBuffer buffer = map(file, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            return new Segment(seq, file, buffer, HEADER, 0);
+        }
+
+        static Segment open(long seq, File file) throws IOException {
+            MappedByteBuffer buffer = map(file, (int) file.length());
+            if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a notification journal segment: " + file);
+            }
+            // find where the writing stopped
+            ByteBuffer in = buffer.duplicate();
+            in.position(HEADER);
+            while (in.remaining() >= 4) {
+                int length = in.getInt(in.position());
+                if (length <= 0 || length > in.remaining() - 4) {
+                    break;
+                }
+                in.position(in.position() + 4 + length);
+            }
+            int end = in.position();
+            long lastId = read(buffer, end, new LinkedHashMap<Long, JournalEntry>());
+            return new Segment(seq, file, buffer, end, lastId);
+        }
+
+        Segment renamed(File to) {
+            return new Segment(seq, to, buffer, end, lastId);
+        }
+
+        private static MappedByteBuffer map(File file, int size) throws IOException {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(size);
+                return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            }
+        }
+    }
+}
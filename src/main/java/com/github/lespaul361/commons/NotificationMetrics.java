@@ -0,0 +1,58 @@
+package com.github.lespaul361.commons;
+
+/**
+ * Told by a {@link NotificationEngine} what happens to its notifications and
+ * sounds. Every method does nothing by default so an implementation only
+ * overrides what it needs. Methods are called on the engine's threads and
+ * must return quickly.
+ * <p>
+ * {@link NotificationStats} keeps counters and latency histograms and can be
+ * published over JMX with {@link NotificationMonitor}.
+ *
+ * @author Charles Hamilton
+ * @see NotificationEngine.Builder#metrics(NotificationMetrics)
+ */
+public interface NotificationMetrics {
+
+    /**
+     * A notification was asked for
+     *
+     * @param priority the priority of the notification
+     */
+    default void submitted(NotificationPriority priority) {
+    }
+
+    /**
+     * A notification was merged into one already on screen
+     */
+    default void merged() {
+    }
+
+    /**
+     * A notification was thrown away by the overflow policy
+     */
+    default void dropped() {
+    }
+
+    /**
+     * A notification reached the screen
+     *
+     * @param latencyNanos the time from being asked for to being on screen
+     */
+    default void shown(long latencyNanos) {
+    }
+
+    /**
+     * A sound was decoded if needed and started
+     *
+     * @param nanos the time taken to decode and start the sound
+     */
+    default void soundPlayed(long nanos) {
+    }
+
+    /**
+     * A sound could not be read or played
+     */
+    default void soundFailed() {
+    }
+}
@@ -0,0 +1,196 @@
+package com.github.lespaul361.commons;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Publishes the state of a {@link NotificationEngine} over JMX, such as how
+ * many notifications are waiting, how long they take to reach the screen,
+ * how many audio lines are in use and how well the sound cache is doing.
+ * <pre>
+ * NotificationStats stats = new NotificationStats();
+ * NotificationEngine engine = new NotificationEngine.Builder()
+ *         .metrics(stats).build();
+ * NotificationMonitor.register(engine, stats, "alerts");
+ * </pre>
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationMonitor implements NotificationMonitorMBean {
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final NotificationEngine engine;
+    private final NotificationStats stats;
+    private ObjectName objectName = null;
+
+    /**
+     * Constructs a new <code>NotificationMonitor</code>
+     *
+     * @param engine the engine to watch
+     * @param stats the stats given to the engine with
+     * {@link NotificationEngine.Builder#metrics(NotificationMetrics)}
+     */
+    public NotificationMonitor(NotificationEngine engine, NotificationStats stats) {
+        if (engine == null || stats == null) {
+            throw new IllegalArgumentException("engine and stats cannot be null");
+        }
+        this.engine = engine;
+        this.stats = stats;
+    }
+
+    /**
+     * Makes a monitor and registers it with the platform MBean server as
+     * <code>com.github.lespaul361.commons:type=NotificationEngine,name=</code>
+     * followed by the given name
+     *
+     * @param engine the engine to watch
+     * @param stats the stats given to the engine
+     * @param name the name to register under
+     * @return the registered monitor
+     * @throws JMException if the monitor cannot be registered
+     */
+    public static NotificationMonitor register(NotificationEngine engine,
+            NotificationStats stats, String name) throws JMException {
+        NotificationMonitor monitor = new NotificationMonitor(engine, stats);
+        ObjectName objectName = new ObjectName(
+                "com.github.lespaul361.commons:type=NotificationEngine,name="
+                + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(monitor,
+                objectName);
+        monitor.objectName = objectName;
+        return monitor;
+    }
+
+    /**
+     * Removes this monitor from the platform MBean server if it was
+     * registered with {@link #register(NotificationEngine, NotificationStats, String)}
+     *
+     * @throws JMException if the monitor cannot be removed
+     */
+    public void unregister() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+        objectName = null;
+    }
+
+    @Override
+    public int getPendingCount() {
+        return engine.getPendingCount();
+    }
+
+    @Override
+    public int getVisibleCount() {
+        return engine.getVisibleCount();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return engine.getDroppedCount();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return engine.getRejectedCount();
+    }
+
+    @Override
+    public long getSubmittedCount() {
+        return stats.getSubmittedCount();
+    }
+
+    @Override
+    public long getMergedCount() {
+        return stats.getMergedCount();
+    }
+
+    @Override
+    public long getShownCount() {
+        return stats.getShownCount();
+    }
+
+    @Override
+    public long getSoundFailureCount() {
+        return stats.getSoundFailureCount();
+    }
+
+    @Override
+    public double getShowLatencyMeanMillis() {
+        return stats.getShowLatency().getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getShowLatencyP50Millis() {
+        return stats.getShowLatency().getPercentile(50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getShowLatencyP99Millis() {
+        return stats.getShowLatency().getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getShowLatencyMaxMillis() {
+        return stats.getShowLatency().getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getSoundLatencyMeanMillis() {
+        return stats.getSoundLatency().getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getSoundLatencyP99Millis() {
+        return stats.getSoundLatency().getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public int getOpenAudioLines() {
+        return StreamingPlayer.getDefault().getOpenLines()
+                + (SoundMixer.getDefault().isOpen() ? 1 : 0);
+    }
+
+    @Override
+    public int getPlayingAudioLines() {
+        return StreamingPlayer.getDefault().getPlayingLines();
+    }
+
+    @Override
+    public int getMixerVoices() {
+        return SoundMixer.getDefault().getActiveVoices();
+    }
+
+    @Override
+    public double getSoundCacheHitRate() {
+        SoundCache cache = SoundCache.getDefault();
+        long hits = cache.getHitCount();
+        long total = hits + cache.getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getSoundCacheBytes() {
+        return SoundCache.getDefault().getSizeInBytes();
+    }
+
+    @Override
+    public double getSoundDecodeMeanMillis() {
+        SoundCache cache = SoundCache.getDefault();
+        long misses = cache.getMissCount();
+        return misses == 0 ? 0
+                : cache.getDecodeNanos() / NANOS_PER_MILLI / misses;
+    }
+
+    @Override
+    public void resetLatencies() {
+        stats.getShowLatency().reset();
+        stats.getSoundLatency().reset();
+    }
+}
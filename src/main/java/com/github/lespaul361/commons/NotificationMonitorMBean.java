@@ -0,0 +1,55 @@
+package com.github.lespaul361.commons;
+
+/**
+ * The JMX view of a {@link NotificationEngine}. Times are in milliseconds.
+ *
+ * @author Charles Hamilton
+ * @see NotificationMonitor
+ */
+public interface NotificationMonitorMBean {
+
+    int getPendingCount();
+
+    int getVisibleCount();
+
+    long getDroppedCount();
+
+    long getRejectedCount();
+
+    long getSubmittedCount();
+
+    long getMergedCount();
+
+    long getShownCount();
+
+    long getSoundFailureCount();
+
+    double getShowLatencyMeanMillis();
+
+    double getShowLatencyP50Millis();
+
+    double getShowLatencyP99Millis();
+
+    double getShowLatencyMaxMillis();
+
+    double getSoundLatencyMeanMillis();
+
+    double getSoundLatencyP99Millis();
+
+    int getOpenAudioLines();
+
+    int getPlayingAudioLines();
+
+    int getMixerVoices();
+
+    double getSoundCacheHitRate();
+
+    long getSoundCacheBytes();
+
+    double getSoundDecodeMeanMillis();
+
+    /**
+     * Forgets the recorded latencies
+     */
+    void resetLatencies();
+}
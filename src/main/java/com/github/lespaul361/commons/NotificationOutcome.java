@@ -0,0 +1,37 @@
+package com.github.lespaul361.commons;
+
+/**
+ * What happened to a notification, as kept in a {@link NotificationJournal}
+ *
+ * @author Charles Hamilton
+ */
+public enum NotificationOutcome {
+    /**
+     * Accepted and waiting to be shown
+     */
+    Pending,
+    /**
+     * On screen
+     */
+    Shown,
+    /**
+     * Clicked by the user
+     */
+    Clicked,
+    /**
+     * Went away when its time ran out
+     */
+    Expired,
+    /**
+     * Closed by the application or the window
+     */
+    Closed,
+    /**
+     * Dropped or summarized because too many notifications were waiting
+     */
+    Dropped,
+    /**
+     * Merged into the same notification already on screen
+     */
+    Merged
+}
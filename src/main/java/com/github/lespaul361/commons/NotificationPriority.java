@@ -0,0 +1,53 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+
+/**
+ * How important a notification is. Higher priority notifications and their
+ * sounds are handled before lower ones and lower ones are dropped first when
+ * a queue is full.
+ *
+ * @author Charles Hamilton
+ */
+public enum NotificationPriority {
+    /**
+     * Routine information that can be dropped first
+     */
+    Low,
+    /**
+     * The default priority
+     */
+    Normal,
+    /**
+     * Something that needs attention
+     */
+    High,
+    /**
+     * An error that must always be shown
+     */
+    Critical;
+
+    /**
+     * Gets the priority used for an icon type when none is given.
+     * {@link MessageIconType#Error} is critical,
+     * {@link MessageIconType#Warning} and
+     * {@link MessageIconType#Exclamation} are high and the rest are normal.
+     *
+     * @param iconType the type of icon, may be <code>null</code>
+     * @return the priority
+     */
+    public static NotificationPriority forIconType(MessageIconType iconType) {
+        if (iconType == null) {
+            return Normal;
+        }
+        switch (iconType) {
+            case Error:
+                return Critical;
+            case Warning:
+            case Exclamation:
+                return High;
+            default:
+                return Normal;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.lespaul361.commons;
+
+import java.awt.GraphicsEnvironment;
+import java.io.InputStream;
+import javax.swing.SwingUtilities;
+
+/**
+ * Draws notifications and plays their sounds for a
+ * {@link NotificationEngine}. The engine decides what is shown and when, the
+ * renderer only puts it on screen.
+ * <p>
+ * {@link JCommuniqueRenderer} is used on a desktop and
+ * {@link HeadlessRenderer} when there is no display. Other renderers can be
+ * given to {@link NotificationEngine.Builder#renderer(NotificationRenderer)},
+ * such as a {@link RecordingRenderer} in tests.
+ *
+ * @author Charles Hamilton
+ */
+public interface NotificationRenderer {
+
+    /**
+     * Told by the renderer what happened to a notification it shows
+     */
+    interface Listener {
+
+        /**
+         * The notification is on screen
+         *
+         * @param handle the notification
+         */
+        void shown(NotificationHandle handle);
+
+        /**
+         * The notification was clicked and has gone away
+         *
+         * @param handle the notification
+         */
+        void clicked(NotificationHandle handle);
+
+        /**
+         * The notification went away on its own
+         *
+         * @param handle the notification
+         */
+        void hidden(NotificationHandle handle);
+    }
+
+    /**
+     * Whether this renderer works without a display. A headless renderer is
+     * called on the thread that shows the notification, while the others are
+     * called on the event dispatch thread and play sounds on sound threads.
+     *
+     * @return <code>true</code> if no display or sound device is used
+     */
+    boolean isHeadless();
+
+    /**
+     * Shows a notification
+     *
+     * @param handle the notification to show
+     * @param listener told when the notification is shown, clicked or hidden
+     */
+    void show(NotificationHandle handle, Listener listener);
+
+    /**
+     * Shows the current title, subtitle and icon of a notification that is
+     * already shown
+     *
+     * @param handle the notification that changed
+     */
+    void update(NotificationHandle handle);
+
+    /**
+     * Takes a notification off screen
+     *
+     * @param handle the notification to hide
+     */
+    void hide(NotificationHandle handle);
+
+    /**
+     * Plays a decoded sound
+     *
+     * @param sound the sound to play
+     * @param priority the priority of the sound
+     * @return <code>true</code> if the sound was played
+     */
+    boolean playSound(DecodedSound sound, NotificationPriority priority);
+
+    /**
+     * Plays a sound from a stream. The renderer closes the stream, played or
+     * not.
+     *
+     * @param sound a stream with the sound to play
+     * @param priority the priority of the sound
+     * @return <code>true</code> if the sound was played
+     */
+    boolean playSound(InputStream sound, NotificationPriority priority);
+
+    /**
+     * Creates whatever the renderer needs ahead of the first notification,
+     * such as windows. Called on the same thread as {@link #show}. Does
+     * nothing by default.
+     */
+    default void warmUp() {
+    }
+
+    /**
+     * Gets the renderer to use when none is given, a
+     * {@link HeadlessRenderer} when there is no display and a
+     * {@link JCommuniqueRenderer} otherwise
+     *
+     * @return a new renderer
+     */
+    static NotificationRenderer createDefault() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new HeadlessRenderer();
+        }
+        final JCommuniqueRenderer renderer = new JCommuniqueRenderer();
+        // have windows for the default theme ready before the first toast
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                renderer.warmUp();
+            }
+        });
+        return renderer;
+    }
+}
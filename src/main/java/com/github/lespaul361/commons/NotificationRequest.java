@@ -0,0 +1,117 @@
+package com.github.lespaul361.commons;
+
+import com.notification.NotificationFactory;
+import com.theme.ThemePackage;
+import com.utils.Time;
+import java.io.InputStream;
+import javax.swing.ImageIcon;
+
+/**
+ * Everything needed to show one notification, with the theme, icon and sound
+ * already resolved. Made by {@link NotificationEngine} and
+ * {@link DisplayNotification.NotificationBuilder}.
+ *
+ * @author Charles Hamilton
+ */
+final class NotificationRequest {
+
+    private final String title;
+    private final String subtitle;
+    private final ImageIcon icon;
+    private final Time time;
+    private final DecodedSound sound;
+    private final InputStream soundStream;
+    private final ThemePackage themePackage;
+    private final NotificationFactory.Location location;
+    private final String coalesceKey;
+    private final NotificationPriority priority;
+    private String iconName = null;
+    private String themeName = null;
+
+    NotificationRequest(String title, String subtitle, ImageIcon icon, Time time,
+            DecodedSound sound, InputStream soundStream,
+            ThemePackage themePackage, NotificationFactory.Location location,
+            String coalesceKey, NotificationPriority priority) {
+        this.title = title;
+        this.subtitle = subtitle;
+        this.icon = icon;
+        this.time = time == null ? Time.seconds(5) : time;
+        this.sound = sound;
+        this.soundStream = soundStream;
+        this.themePackage = themePackage;
+        this.location = location;
+        this.coalesceKey = coalesceKey;
+        this.priority = priority == null ? NotificationPriority.Normal : priority;
+    }
+
+    String getTitle() {
+        return title;
+    }
+
+    String getSubtitle() {
+        return subtitle;
+    }
+
+    ImageIcon getIcon() {
+        return icon;
+    }
+
+    Time getTime() {
+        return time;
+    }
+
+    DecodedSound getSound() {
+        return sound;
+    }
+
+    InputStream getSoundStream() {
+        return soundStream;
+    }
+
+    boolean hasSound() {
+        return sound != null || soundStream != null;
+    }
+
+    ThemePackage getThemePackage() {
+        return themePackage;
+    }
+
+    NotificationFactory.Location getLocation() {
+        return location;
+    }
+
+    NotificationPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Names the icon and theme for the {@link NotificationJournal}, such as
+     * the preset or registry key they were chosen by
+     *
+     * @return this request
+     */
+    NotificationRequest describe(String iconName, String themeName) {
+        this.iconName = iconName;
+        this.themeName = themeName;
+        return this;
+    }
+
+    String getIconName() {
+        return iconName;
+    }
+
+    String getThemeName() {
+        return themeName;
+    }
+
+    /**
+     * The key used to merge repeated notifications. Unless one was given it
+     * is made from the title and subtitle.
+     */
+    String getCoalesceKey() {
+        if (coalesceKey != null) {
+            return coalesceKey;
+        }
+        return String.valueOf(title) + '\u0000' + String.valueOf(subtitle);
+    }
+}
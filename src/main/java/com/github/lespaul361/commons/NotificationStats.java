@@ -0,0 +1,116 @@
+package com.github.lespaul361.commons;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link NotificationMetrics} that counts what happens and keeps histograms
+ * of how long notifications take to reach the screen and sounds take to
+ * start.
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationStats implements NotificationMetrics {
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong shown = new AtomicLong();
+    private final AtomicLong soundFailures = new AtomicLong();
+    private final LatencyHistogram showLatency = new LatencyHistogram();
+    private final LatencyHistogram soundLatency = new LatencyHistogram();
+
+    @Override
+    public void submitted(NotificationPriority priority) {
+        submitted.incrementAndGet();
+    }
+
+    @Override
+    public void merged() {
+        merged.incrementAndGet();
+    }
+
+    @Override
+    public void dropped() {
+        dropped.incrementAndGet();
+    }
+
+    @Override
+    public void shown(long latencyNanos) {
+        shown.incrementAndGet();
+        showLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void soundPlayed(long nanos) {
+        soundLatency.record(nanos);
+    }
+
+    @Override
+    public void soundFailed() {
+        soundFailures.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of notifications asked for
+     *
+     * @return the number of submitted notifications
+     */
+    public long getSubmittedCount() {
+        return submitted.get();
+    }
+
+    /**
+     * Gets the number of notifications merged into one on screen
+     *
+     * @return the number of merged notifications
+     */
+    public long getMergedCount() {
+        return merged.get();
+    }
+
+    /**
+     * Gets the number of notifications thrown away by the overflow policy
+     *
+     * @return the number of dropped notifications
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Gets the number of notifications that reached the screen
+     *
+     * @return the number of shown notifications
+     */
+    public long getShownCount() {
+        return shown.get();
+    }
+
+    /**
+     * Gets the number of sounds that could not be read or played
+     *
+     * @return the number of failed sounds
+     */
+    public long getSoundFailureCount() {
+        return soundFailures.get();
+    }
+
+    /**
+     * Gets the times from a notification being asked for to it being on
+     * screen
+     *
+     * @return the histogram of show latencies
+     */
+    public LatencyHistogram getShowLatency() {
+        return showLatency;
+    }
+
+    /**
+     * Gets the times taken to decode and start sounds
+     *
+     * @return the histogram of sound latencies
+     */
+    public LatencyHistogram getSoundLatency() {
+        return soundLatency;
+    }
+}
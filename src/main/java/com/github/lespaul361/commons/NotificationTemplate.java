@@ -0,0 +1,311 @@
+package com.github.lespaul361.commons;
+
+import com.notification.NotificationFactory;
+import com.theme.ThemePackage;
+import com.utils.Time;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.swing.ImageIcon;
+
+/**
+ * A notification with <code>{name}</code> placeholders in its title,
+ * subtitle and coalesce key, made with
+ * {@link DisplayNotification.NotificationBuilder#compile()}. The text is
+ * split into pieces once and the theme, icon and sound are looked up once,
+ * so showing a template only fills in the values.
+ * <pre>
+ * new NotificationBuilder("Job {job} done", "Finished in {seconds} s")
+ *         .icon(MessageIconType.Exclamation).register("jobDone");
+ *
+ * DisplayNotification.template("jobDone").with("job", id)
+ *         .with("seconds", seconds).show();
+ * </pre>
+ * Write <code>{{</code> for a <code>{</code> that does not start a
+ * placeholder. A placeholder without a value is left empty.
+ *
+ * @author Charles Hamilton
+ */
+public final class NotificationTemplate {
+
+    private final String[] names;
+    private final Text title;
+    private final Text subtitle;
+    private final Text coalesceKey;
+    private final Time time;
+    private final ImageIcon icon;
+    private final ThemePackage themePackage;
+    private final DecodedSound sound;
+    private final SoundLibrary streamLibrary;
+    private final String streamName;
+    private final NotificationFactory.Location location;
+    private final NotificationPriority priority;
+    private final String iconName;
+    private final String themeName;
+
+    NotificationTemplate(String title, String subtitle, String coalesceKey,
+            Time time, ImageIcon icon, ThemePackage themePackage,
+            DecodedSound sound, SoundLibrary streamLibrary, String streamName,
+            NotificationFactory.Location location, NotificationPriority priority,
+            String iconName, String themeName) {
+        List<String> found = new ArrayList<>();
+        this.title = Text.compile(title, found);
+        this.subtitle = Text.compile(subtitle, found);
+        this.coalesceKey = Text.compile(coalesceKey, found);
+        this.names = found.toArray(new String[found.size()]);
+        this.time = time;
+        this.icon = icon;
+        this.themePackage = themePackage;
+        this.sound = sound;
+        this.streamLibrary = streamLibrary;
+        this.streamName = streamName;
+        this.location = location;
+        this.priority = priority;
+        this.iconName = iconName;
+        this.themeName = themeName;
+    }
+
+    /**
+     * Gets the names of the placeholders
+     *
+     * @return the names in the order they first appear
+     */
+    public List<String> getPlaceholders() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * Starts a notification from the template with one value filled in
+     *
+     * @param name the name of the placeholder
+     * @param value the value, shown with <code>String.valueOf</code>
+     * @return a notification to fill in more values for and show
+     * @throws IllegalArgumentException if the template has no such
+     * placeholder
+     */
+    public Instance with(String name, Object value) {
+        return new Instance(this).with(name, value);
+    }
+
+    /**
+     * Shows the template as it is, with every placeholder left empty
+     */
+    public void show() {
+        new Instance(this).show();
+    }
+
+    private int indexOf(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("template has no placeholder {"
+                + name + "}");
+    }
+
+    /**
+     * One notification made from a template. Holds only the values, the rest
+     * is shared with the template.
+     */
+    public static final class Instance {
+
+        private final NotificationTemplate template;
+        private final Object[] values;
+
+        private Instance(NotificationTemplate template) {
+            this.template = template;
+            this.values = new Object[template.names.length];
+        }
+
+        /**
+         * Fills in a placeholder
+         *
+         * @param name the name of the placeholder
+         * @param value the value, shown with <code>String.valueOf</code>
+         * @return this instance
+         * @throws IllegalArgumentException if the template has no such
+         * placeholder
+         */
+        public Instance with(String name, Object value) {
+            values[template.indexOf(name)] = value;
+            return this;
+        }
+
+        /**
+         * Gets the title with the values filled in
+         *
+         * @return the title
+         */
+        public String getTitle() {
+            return template.title.format(values);
+        }
+
+        /**
+         * Gets the subtitle with the values filled in
+         *
+         * @return the subtitle
+         */
+        public String getSubtitle() {
+            return template.subtitle.format(values);
+        }
+
+        /**
+         * Shows the notification
+         */
+        public void show() {
+            show(NotificationEngine.getDefault());
+        }
+
+        /**
+         * Shows the notification using the given engine
+         *
+         * @param engine the engine to show the notification with
+         */
+        public void show(NotificationEngine engine) {
+            engine.show(toRequest());
+        }
+
+        /**
+         * Shows the notification without blocking
+         *
+         * @return a future that completes with a handle for the notification
+         * once it is on screen, or is cancelled if it is dropped or closed
+         * first
+         */
+        public CompletableFuture<NotificationHandle> showAsync() {
+            return showAsync(NotificationEngine.getDefault());
+        }
+
+        /**
+         * Shows the notification using the given engine without blocking
+         *
+         * @param engine the engine to show the notification with
+         * @return a future that completes with a handle for the notification
+         * once it is on screen, or is cancelled if it is dropped or closed
+         * first
+         */
+        public CompletableFuture<NotificationHandle> showAsync(
+                NotificationEngine engine) {
+            return engine.show(toRequest()).shown();
+        }
+
+        NotificationRequest toRequest() {
+            NotificationTemplate t = template;
+            InputStream stream = null;
+            if (t.streamLibrary != null) {
+                try {
+                    stream = t.streamLibrary.openStream(t.streamName);
+                } catch (IOException e) {
+                    System.err.println("Unable to read sound: " + e.getMessage());
+                }
+            }
+            return new NotificationRequest(getTitle(), getSubtitle(), t.icon,
+                    t.time, t.sound, stream, t.themePackage, t.location,
+                    t.coalesceKey.format(values), t.priority)
+                    .describe(t.iconName, t.themeName);
+        }
+    }
+
+    /**
+     * A text split into the literal pieces between its placeholders
+     */
+    private static final class Text {
+
+        private static final Text NONE = new Text(null, null, 0);
+
+        /**
+         * The pieces, one more than there are placeholders
+         */
+        private final String[] pieces;
+        /**
+         * The index of the value for each placeholder
+         */
+        private final int[] slots;
+        private final int length;
+
+        private Text(String[] pieces, int[] slots, int length) {
+            this.pieces = pieces;
+            this.slots = slots;
+            this.length = length;
+        }
+
+        /**
+         * Splits a text, adding placeholder names not seen yet to the list
+         */
+        static Text compile(String text, List<String> names) {
+            if (text == null) {
+                return NONE;
+            }
+            List<String> pieces = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            StringBuilder piece = new StringBuilder();
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (c != '{') {
+                    piece.append(c);
+                    i++;
+                } else if (i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                    piece.append('{');
+                    i += 2;
+                } else {
+                    int end = text.indexOf('}', i + 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("unclosed placeholder in \""
+                                + text + "\"");
+                    }
+                    String name = text.substring(i + 1, end).trim();
+                    if (name.isEmpty()) {
+                        throw new IllegalArgumentException("empty placeholder in \""
+                                + text + "\"");
+                    }
+                    int slot = names.indexOf(name);
+                    if (slot < 0) {
+                        slot = names.size();
+                        names.add(name);
+                    }
+                    pieces.add(piece.toString());
+                    slots.add(slot);
+                    piece.setLength(0);
+                    i = end + 1;
+                }
+            }
+            pieces.add(piece.toString());
+            int length = 0;
+            int[] slotArray = new int[slots.size()];
+            for (int s = 0; s < slotArray.length; s++) {
+                slotArray[s] = slots.get(s);
+            }
+            for (String p : pieces) {
+                length += p.length();
+            }
+            return new Text(pieces.toArray(new String[pieces.size()]), slotArray,
+                    length);
+        }
+
+        String format(Object[] values) {
+            if (pieces == null) {
+                return null;
+            }
+            if (slots.length == 0) {
+                // no placeholders, nothing to build
+                return pieces[0];
+            }
+            StringBuilder sb = new StringBuilder(length + 16 * slots.length);
+            sb.append(pieces[0]);
+            for (int i = 0; i < slots.length; i++) {
+                Object value = values[slots[i]];
+                if (value != null) {
+                    sb.append(value);
+                }
+                sb.append(pieces[i + 1]);
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.NotificationBuilder;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sends notifications to a {@link NotifierDaemon} running on the same
+ * machine. Sending only writes to a buffer, so it takes microseconds.
+ * {@link #flush()} sends everything buffered in one go and reads the
+ * replies, and the daemon shows what arrived together as one batch. After
+ * {@value #MAX_PENDING} unflushed sends the client sends them and reads the
+ * replies on its own, so the replies never pile up until both ends are
+ * stuck writing.
+ * <pre>
+ * try (NotifierClient client = new NotifierClient(NotifierDaemon.DEFAULT_PORT)) {
+ *     client.send(new DisplayNotification.NotificationBuilder("Backup", "Done")
+ *             .icon(DisplayNotification.MessageIconType.Exclamation));
+ * }
+ * </pre>
+ * Only themes, icons and sounds chosen by name can be sent. A client is not
+ * thread safe.
+ *
+ * @author Charles Hamilton
+ */
+public class NotifierClient implements Closeable {
+
+    /**
+     * The most notifications sent before the replies are read, as many as
+     * the daemon shows in one batch
+     */
+    public static final int MAX_PENDING = 64;
+
+    private final Socket socket;
+    private final BufferedReader in;
+    private final Writer out;
+    private final List<String> rejections = new ArrayList<>();
+    /**
+     * Rejections read since the last flush, reported by the next one
+     */
+    private final List<String> unreported = new ArrayList<>();
+    private int accepted = 0;
+    private int pending = 0;
+
+    /**
+     * Constructs a new <code>NotifierClient</code> connected to a daemon on
+     * the loopback address
+     *
+     * @param port the port the daemon listens on
+     * @throws IOException if the daemon cannot be reached
+     */
+    public NotifierClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        socket.setTcpNoDelay(true);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.UTF_8));
+        out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds a notification to the buffer without waiting for the daemon
+     *
+     * @param builder the notification to send
+     * @throws IOException if the buffer cannot be written to the daemon
+     * @throws IllegalArgumentException if the builder uses a theme, icon or
+     * sound object instead of a name
+     */
+    public void send(NotificationBuilder builder) throws IOException {
+        write(builder.toWire());
+        if (pending >= MAX_PENDING) {
+            sendBuffered();
+        }
+    }
+
+    /**
+     * Sends the buffered notifications and waits for the daemon to accept
+     * them. Why any were rejected can be had from {@link #getRejections()}.
+     *
+     * @return the number of notifications sent since the last flush that
+     * the daemon accepted
+     * @throws IOException if the daemon cannot be reached
+     */
+    public int flush() throws IOException {
+        sendBuffered();
+        rejections.clear();
+        rejections.addAll(unreported);
+        unreported.clear();
+        int n = accepted;
+        accepted = 0;
+        return n;
+    }
+
+    /**
+     * Sends what is buffered and reads the replies, counting them towards
+     * the next {@link #flush()}
+     */
+    private void sendBuffered() throws IOException {
+        out.flush();
+        while (pending > 0) {
+            String reply = readReply();
+            if (NotifierProtocol.OK.equals(reply)) {
+                accepted++;
+            } else if (!NotifierProtocol.PONG.equals(reply)) {
+                unreported.add(NotifierProtocol.errorMessage(reply));
+            }
+        }
+    }
+
+    /**
+     * Gets why notifications sent before the last {@link #flush()} were
+     * rejected
+     *
+     * @return the daemon's message for each rejected notification, in the
+     * order they were sent, or an empty list if all were accepted
+     */
+    public List<String> getRejections() {
+        return Collections.unmodifiableList(new ArrayList<>(rejections));
+    }
+
+    /**
+     * Sends one notification right away
+     *
+     * @param builder the notification to send
+     * @return <code>true</code> if the daemon accepted it, otherwise
+     * {@link #getRejections()} says why
+     * @throws IOException if the daemon cannot be reached
+     */
+    public boolean post(NotificationBuilder builder) throws IOException {
+        send(builder);
+        return flush() > 0;
+    }
+
+    /**
+     * Checks that the daemon is answering. Anything buffered is sent first.
+     *
+     * @return the round trip time in nanoseconds
+     * @throws IOException if the daemon cannot be reached
+     */
+    public long ping() throws IOException {
+        flush();
+        long start = System.nanoTime();
+        write(NotifierProtocol.PING);
+        sendBuffered();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Sends anything buffered and closes the connection
+     *
+     * @throws IOException if the buffer cannot be sent
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!socket.isClosed()) {
+                flush();
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    private void write(String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        pending++;
+    }
+
+    private String readReply() throws IOException {
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new EOFException("Notifier daemon closed the connection");
+        }
+        pending--;
+        return reply;
+    }
+}
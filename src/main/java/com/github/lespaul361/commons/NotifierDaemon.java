@@ -0,0 +1,381 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.NotificationBuilder;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * A long running notifier that shows notifications sent by other processes,
+ * so a batch job or script does not have to start a JVM of its own to show
+ * an alert. It listens on a loopback TCP port for the line format described
+ * in {@link NotifierProtocol}, which {@link NotifierClient} speaks.
+ * <p>
+ * Requests that arrive together on a connection are shown as one batch with
+ * {@link NotificationEngine#showNotifications(java.util.Collection, BatchMode)},
+ * so a client that sends many notifications before reading the replies gets
+ * one sound and one pass on the event dispatch thread for all of them.
+ * <p>
+ * Each connection is served by a thread of its own. At most
+ * {@value #MAX_CLIENTS} are served at once; a connection over the limit is
+ * closed straight away.
+ * <p>
+ * Run it with <code>java -cp ... com.github.lespaul361.commons.NotifierDaemon
+ * [port]</code>. A shell script can then send a notification with
+ * <code>printf 'N\tt=Backup\ts=Done\n' | nc localhost 47123</code>.
+ *
+ * @author Charles Hamilton
+ */
+public class NotifierDaemon implements Closeable {
+
+    /**
+     * The port used when none is given
+     */
+    public static final int DEFAULT_PORT = 47123;
+
+    /**
+     * The most requests shown as one batch
+     */
+    private static final int MAX_BATCH = 64;
+
+    /**
+     * The longest request line kept, in characters. Longer lines are
+     * rejected so a client cannot fill the heap.
+     */
+    static final int MAX_LINE = 64 * 1024;
+
+    /**
+     * The most connections served at the same time
+     */
+    public static final int MAX_CLIENTS = 32;
+
+    private final NotificationEngine engine;
+    private final int port;
+    private final BatchMode batchMode;
+    private final ThreadFactory threads = new NamedThreadFactory("notifier-daemon");
+    private final Set<Socket> clients = new HashSet<>();
+    private ServerSocket server = null;
+    private Thread acceptor = null;
+    private long receivedCount = 0;
+    private long rejectedCount = 0;
+
+    /**
+     * Constructs a new <code>NotifierDaemon</code> showing notifications with
+     * the default engine, each in its own toast
+     *
+     * @param port the port to listen on, or 0 for any free port
+     */
+    public NotifierDaemon(int port) {
+        this(NotificationEngine.getDefault(), port, BatchMode.Stacked);
+    }
+
+    /**
+     * Constructs a new <code>NotifierDaemon</code>
+     *
+     * @param engine the engine to show notifications with
+     * @param port the port to listen on, or 0 for any free port
+     * @param batchMode how notifications that arrive together are shown
+     */
+    public NotifierDaemon(NotificationEngine engine, int port, BatchMode batchMode) {
+        if (engine == null || batchMode == null) {
+            throw new IllegalArgumentException("engine and batchMode cannot be null");
+        }
+        this.engine = engine;
+        this.port = port;
+        this.batchMode = batchMode;
+    }
+
+    /**
+     * Starts listening on the loopback address
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("daemon is already started");
+        }
+        final ServerSocket s = new ServerSocket();
+        try {
+            s.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            s.close();
+            throw e;
+        }
+        server = s;
+        acceptor = threads.newThread(new Runnable() {
+            @Override
+            public void run() {
+                acceptLoop(s);
+            }
+        });
+        acceptor.start();
+    }
+
+    /**
+     * Gets the port the daemon listens on
+     *
+     * @return the bound port, or -1 if it is not started
+     */
+    public synchronized int getPort() {
+        return server == null ? -1 : server.getLocalPort();
+    }
+
+    /**
+     * Gets the number of connected clients
+     *
+     * @return the number of open connections
+     */
+    public synchronized int getClientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Gets the number of notifications received
+     *
+     * @return the number of notification requests read
+     */
+    public synchronized long getReceivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * Gets the number of requests that could not be read
+     *
+     * @return the number of rejected requests
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Waits until the daemon is closed
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void join() throws InterruptedException {
+        Thread t;
+        synchronized (this) {
+            t = acceptor;
+        }
+        if (t != null) {
+            t.join();
+        }
+    }
+
+    /**
+     * Stops listening and closes every connection
+     */
+    @Override
+    public void close() {
+        List<Closeable> toClose = new ArrayList<>();
+        synchronized (this) {
+            if (server != null) {
+                toClose.add(server);
+            }
+            toClose.addAll(clients);
+            clients.clear();
+        }
+        for (Closeable c : toClose) {
+            try {
+                c.close();
+            } catch (IOException e) {
+                e.printStackTrace(System.out);
+            }
+        }
+    }
+
+    private void acceptLoop(ServerSocket s) {
+        while (!s.isClosed()) {
+            final Socket socket;
+            try {
+                socket = s.accept();
+            } catch (IOException e) {
+                if (!s.isClosed()) {
+                    System.err.println("Notifier daemon stopped: " + e);
+                }
+                return;
+            }
+            synchronized (this) {
+                if (s.isClosed()) {
+                    closeQuietly(socket);
+                    return;
+                }
+                if (clients.size() >= MAX_CLIENTS) {
+                    System.err.println("Notifier daemon refused a connection, "
+                            + MAX_CLIENTS + " clients are connected");
+                    closeQuietly(socket);
+                    continue;
+                }
+                clients.add(socket);
+            }
+            threads.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    serve(socket);
+                }
+            }).start();
+        }
+    }
+
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            LineReader in = new LineReader(new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8)));
+            Writer out = new BufferedWriter(new OutputStreamWriter(
+                    socket.getOutputStream(), StandardCharsets.UTF_8));
+            List<String> replies = new ArrayList<>();
+            List<NotificationBuilder> batch = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                // take whatever else has already arrived as one batch
+                do {
+                    replies.add(in.isTooLong() ? reject("line longer than "
+                            + MAX_LINE + " characters") : handle(line, batch));
+                } while (batch.size() < MAX_BATCH && in.ready()
+                        && (line = in.readLine()) != null);
+                if (!batch.isEmpty()) {
+                    try {
+                        engine.showNotifications(batch, batchMode);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace(System.out);
+                    }
+                    batch.clear();
+                }
+                for (String reply : replies) {
+                    out.write(reply);
+                    out.write('\n');
+                }
+                out.flush();
+                replies.clear();
+            }
+        } catch (SocketException e) {
+            // closed by the client or by close()
+        } catch (IOException e) {
+            e.printStackTrace(System.out);
+        } finally {
+            synchronized (this) {
+                clients.remove(socket);
+            }
+            closeQuietly(socket);
+        }
+    }
+
+    /**
+     * Handles one request line
+     *
+     * @return the reply
+     */
+    private String handle(String line, List<NotificationBuilder> batch) {
+        if (NotifierProtocol.PING.equals(line)) {
+            return NotifierProtocol.PONG;
+        }
+        try {
+            batch.add(NotifierProtocol.decode(line));
+            synchronized (this) {
+                receivedCount++;
+            }
+            return NotifierProtocol.OK;
+        } catch (RuntimeException e) {
+            return reject(e.getMessage());
+        }
+    }
+
+    private String reject(String message) {
+        synchronized (this) {
+            rejectedCount++;
+        }
+        return NotifierProtocol.error(message);
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // nothing more to do with it
+        }
+    }
+
+    /**
+     * Reads lines like <code>BufferedReader.readLine()</code> but keeps at
+     * most {@link #MAX_LINE} characters of each
+     */
+    private static final class LineReader {
+
+        private final BufferedReader in;
+        private final StringBuilder line = new StringBuilder();
+        private boolean tooLong = false;
+
+        LineReader(BufferedReader in) {
+            this.in = in;
+        }
+
+        /**
+         * Reads the next line
+         *
+         * @return the line without its line break, or <code>null</code> at
+         * the end of the stream
+         */
+        String readLine() throws IOException {
+            line.setLength(0);
+            tooLong = false;
+            int c;
+            while ((c = in.read()) >= 0 && c != '\n') {
+                if (line.length() < MAX_LINE) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            if (c < 0 && line.length() == 0 && !tooLong) {
+                return null;
+            }
+            int end = line.length();
+            if (end > 0 && line.charAt(end - 1) == '\r') {
+                line.setLength(end - 1);
+            }
+            return line.toString();
+        }
+
+        /**
+         * Whether the last line was cut short
+         */
+        boolean isTooLong() {
+            return tooLong;
+        }
+
+        boolean ready() throws IOException {
+            return in.ready();
+        }
+    }
+
+    /**
+     * Runs a daemon until the JVM is stopped
+     *
+     * @param args the port to listen on, {@link #DEFAULT_PORT} if not given
+     * @throws Exception if the daemon cannot be started
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        NotifierDaemon daemon = new NotifierDaemon(port);
+        daemon.start();
+        System.out.println("Notifier daemon listening on port " + daemon.getPort()
+                + ", " + DisplayNotification.warmUp());
+        daemon.join();
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+import com.github.lespaul361.commons.DisplayNotification.NotificationBuilder;
+import com.github.lespaul361.commons.DisplayNotification.ThemePackagePresets;
+import com.notification.NotificationFactory;
+import com.utils.Time;
+
+/**
+ * The line based format spoken between {@link NotifierClient} and
+ * {@link NotifierDaemon}. Each request is one line and gets one reply line,
+ * in order, so a client can send many requests before reading the replies.
+ * <p>
+ * A notification is the letter <code>N</code> followed by tab separated
+ * <code>key=value</code> fields. Tabs, line breaks and backslashes in values
+ * are escaped as <code>\t</code>, <code>\n</code>, <code>\r</code> and
+ * <code>\\</code>. Unknown keys are ignored.
+ * <table summary="" border="1">
+ * <tr><td>t</td><td>title</td></tr>
+ * <tr><td>s</td><td>subtitle</td></tr>
+ * <tr><td>d</td><td>time in milliseconds, or <code>inf</code></td></tr>
+ * <tr><td>i</td><td>{@link MessageIconType} name</td></tr>
+ * <tr><td>I</td><td>{@link IconRegistry} key</td></tr>
+ * <tr><td>h</td><td>{@link ThemePackagePresets} name</td></tr>
+ * <tr><td>H</td><td>{@link ThemeRegistry} name</td></tr>
+ * <tr><td>a</td><td>sound key or resource, empty for no sound</td></tr>
+ * <tr><td>l</td><td>location name, such as <code>SOUTHEAST</code></td></tr>
+ * <tr><td>c</td><td>coalesce key</td></tr>
+ * <tr><td>p</td><td>{@link NotificationPriority} name</td></tr>
+ * </table>
+ * The reply is <code>OK</code> or <code>ERR</code> and a message.
+ * <code>PING</code> is answered with <code>PONG</code>.
+ *
+ * @author Charles Hamilton
+ */
+final class NotifierProtocol {
+
+    static final String NOTIFY = "N";
+    static final String PING = "PING";
+    static final String OK = "OK";
+    static final String ERROR = "ERR";
+    static final String PONG = "PONG";
+
+    static final char TITLE = 't';
+    static final char SUBTITLE = 's';
+    static final char TIME = 'd';
+    static final char ICON_TYPE = 'i';
+    static final char ICON_KEY = 'I';
+    static final char THEME_PRESET = 'h';
+    static final char THEME_NAME = 'H';
+    static final char SOUND = 'a';
+    static final char LOCATION = 'l';
+    static final char COALESCE_KEY = 'c';
+    static final char PRIORITY = 'p';
+
+    private static final String INFINITE = "inf";
+
+    private NotifierProtocol() {
+    }
+
+    /**
+     * Adds a field to a request line. Nothing is added for a
+     * <code>null</code> value.
+     */
+    static void append(StringBuilder line, char key, Object value) {
+        if (value == null) {
+            return;
+        }
+        line.append('\t').append(key).append('=');
+        escape(line, value.toString());
+    }
+
+    /**
+     * Adds a time field to a request line
+     */
+    static void appendTime(StringBuilder line, Time time) {
+        append(line, TIME, time.isInfinite() ? INFINITE
+                : Integer.toString(time.getMilliseconds()));
+    }
+
+    /**
+     * Reads a notification request line back into a builder
+     *
+     * @param line the line without the line break
+     * @return a builder for the notification
+     * @throws IllegalArgumentException if the line is not a notification or
+     * a field has a bad value
+     */
+    static NotificationBuilder decode(String line) {
+        String[] fields = line.split("\t", -1);
+        if (!NOTIFY.equals(fields[0])) {
+            throw new IllegalArgumentException("not a notification: " + fields[0]);
+        }
+        String title = null;
+        String subtitle = null;
+        for (int i = 1; i < fields.length; i++) {
+            String field = fields[i];
+            if (field.startsWith(TITLE + "=")) {
+                title = value(field);
+            } else if (field.startsWith(SUBTITLE + "=")) {
+                subtitle = value(field);
+            }
+        }
+        if (title == null) {
+            throw new IllegalArgumentException("missing title");
+        }
+        NotificationBuilder builder = new NotificationBuilder(title,
+                subtitle == null ? "" : subtitle);
+        for (int i = 1; i < fields.length; i++) {
+            String field = fields[i];
+            if (field.length() < 2 || field.charAt(1) != '=') {
+                if (!field.isEmpty()) {
+                    throw new IllegalArgumentException("bad field: " + field);
+                }
+                continue;
+            }
+            String value = value(field);
+            switch (field.charAt(0)) {
+                case TIME:
+                    builder.time(INFINITE.equals(value) ? Time.infinite()
+                            : Time.milliseconds(Integer.parseInt(value)));
+                    break;
+                case ICON_TYPE:
+                    builder.icon(MessageIconType.valueOf(value));
+                    break;
+                case ICON_KEY:
+                    builder.icon(value);
+                    break;
+                case THEME_PRESET:
+                    builder.theme(ThemePackagePresets.valueOf(value));
+                    break;
+                case THEME_NAME:
+                    builder.theme(value);
+                    break;
+                case SOUND:
+                    builder.sound(value.isEmpty() ? null : value);
+                    break;
+                case LOCATION:
+                    builder.location(NotificationFactory.Location.valueOf(value));
+                    break;
+                case COALESCE_KEY:
+                    builder.coalesceKey(value);
+                    break;
+                case PRIORITY:
+                    builder.priority(NotificationPriority.valueOf(value));
+                    break;
+                default:
+                    // a newer client, or the title and subtitle read above
+                    break;
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Makes the reply to a request that could not be read. The message is
+     * escaped like a value so the reply stays on one line.
+     */
+    static String error(String message) {
+        StringBuilder reply = new StringBuilder(ERROR).append(' ');
+        escape(reply, String.valueOf(message));
+        return reply.toString();
+    }
+
+    /**
+     * Gets the message of an <code>ERR</code> reply
+     */
+    static String errorMessage(String reply) {
+        if (!reply.startsWith(ERROR + " ")) {
+            return reply;
+        }
+        return unescape(reply, ERROR.length() + 1);
+    }
+
+    private static String value(String field) {
+        return unescape(field, 2);
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    out.append(c);
+                    break;
+            }
+        }
+    }
+
+    private static String unescape(String field, int start) {
+        if (field.indexOf('\\', start) < 0) {
+            return field.substring(start);
+        }
+        StringBuilder out = new StringBuilder(field.length() - start);
+        for (int i = start; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c != '\\' || i + 1 == field.length()) {
+                out.append(c);
+                continue;
+            }
+            char next = field.charAt(++i);
+            switch (next) {
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                default:
+                    out.append(next);
+                    break;
+            }
+        }
+        return out.toString();
+    }
+}
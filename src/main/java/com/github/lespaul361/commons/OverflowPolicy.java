@@ -0,0 +1,28 @@
+package com.github.lespaul361.commons;
+
+/**
+ * What a {@link NotificationEngine} does with a notification that cannot be
+ * shown yet, either because too many are on screen or because the rate limit
+ * has been reached
+ *
+ * @author Charles Hamilton
+ */
+public enum OverflowPolicy {
+    /**
+     * Waits in a queue and is shown when there is room
+     */
+    Queue,
+    /**
+     * Is thrown away
+     */
+    Drop,
+    /**
+     * Is counted and shown later as part of a single "N more alerts"
+     * notification
+     */
+    Summarize,
+    /**
+     * Makes the caller wait until the notification can be shown
+     */
+    Block
+}
@@ -0,0 +1,111 @@
+package com.github.lespaul361.commons;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A queue ordered by {@link NotificationPriority} and then by age. Not thread
+ * safe, callers hold their own lock.
+ *
+ * @param <E> the type of element
+ * @author Charles Hamilton
+ */
+class PriorityBuffer<E> {
+
+    private static final NotificationPriority[] PRIORITIES
+            = NotificationPriority.values();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayDeque<E>[] queues = new ArrayDeque[PRIORITIES.length];
+    private int size = 0;
+
+    PriorityBuffer() {
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+    }
+
+    void add(E element, NotificationPriority priority) {
+        queues[ordinal(priority)].addLast(element);
+        size++;
+    }
+
+    /**
+     * Removes the oldest element of the highest priority
+     */
+    E poll() {
+        for (int i = queues.length - 1; i >= 0; i--) {
+            E element = queues[i].pollFirst();
+            if (element != null) {
+                size--;
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the lowest priority that has an element
+     *
+     * @return the priority or <code>null</code> if empty
+     */
+    NotificationPriority lowestPriority() {
+        for (int i = 0; i < queues.length; i++) {
+            if (!queues[i].isEmpty()) {
+                return PRIORITIES[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes an element of the lowest priority
+     *
+     * @param oldest <code>true</code> for the oldest, <code>false</code> for
+     * the newest
+     */
+    E pollLowest(boolean oldest) {
+        for (int i = 0; i < queues.length; i++) {
+            E element = oldest ? queues[i].pollFirst() : queues[i].pollLast();
+            if (element != null) {
+                size--;
+                return element;
+            }
+        }
+        return null;
+    }
+
+    boolean remove(E element) {
+        for (ArrayDeque<E> queue : queues) {
+            Iterator<E> it = queue.iterator();
+            while (it.hasNext()) {
+                if (it.next() == element) {
+                    it.remove();
+                    size--;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        for (ArrayDeque<E> queue : queues) {
+            queue.clear();
+        }
+        size = 0;
+    }
+
+    private static int ordinal(NotificationPriority priority) {
+        return priority == null ? NotificationPriority.Normal.ordinal()
+                : priority.ordinal();
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.lespaul361.commons;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A headless renderer that remembers what it was asked to do so tests can
+ * check it. Notifications count as shown straight away and clicks can be
+ * made with {@link #click(NotificationHandle)}. It is safe to use from
+ * several threads.
+ *
+ * @author Charles Hamilton
+ */
+public class RecordingRenderer implements NotificationRenderer {
+
+    private final List<NotificationHandle> shown = new ArrayList<>();
+    private final Map<NotificationHandle, Listener> visible = new IdentityHashMap<>();
+    private int updateCount = 0;
+    private int soundCount = 0;
+
+    @Override
+    public boolean isHeadless() {
+        return true;
+    }
+
+    @Override
+    public void show(NotificationHandle handle, Listener listener) {
+        synchronized (this) {
+            shown.add(handle);
+            visible.put(handle, listener);
+        }
+        listener.shown(handle);
+    }
+
+    @Override
+    public synchronized void update(NotificationHandle handle) {
+        updateCount++;
+    }
+
+    @Override
+    public synchronized void hide(NotificationHandle handle) {
+        visible.remove(handle);
+    }
+
+    @Override
+    public synchronized boolean playSound(DecodedSound sound,
+            NotificationPriority priority) {
+        soundCount++;
+        return true;
+    }
+
+    @Override
+    public synchronized boolean playSound(InputStream sound,
+            NotificationPriority priority) {
+        soundCount++;
+        try {
+            sound.close();
+        } catch (IOException e) {
+            // nothing more to do with it
+        }
+        return true;
+    }
+
+    /**
+     * Clicks a notification that is on screen
+     *
+     * @param handle the notification to click
+     * @return <code>false</code> if it was not on screen
+     */
+    public boolean click(NotificationHandle handle) {
+        Listener listener;
+        synchronized (this) {
+            listener = visible.remove(handle);
+        }
+        if (listener == null) {
+            return false;
+        }
+        listener.clicked(handle);
+        return true;
+    }
+
+    /**
+     * Gets every notification shown, in the order they were shown
+     *
+     * @return a copy of the shown notifications
+     */
+    public synchronized List<NotificationHandle> getShown() {
+        return new ArrayList<>(shown);
+    }
+
+    /**
+     * Gets the notifications that are on screen now
+     *
+     * @return a copy of the visible notifications
+     */
+    public synchronized List<NotificationHandle> getVisible() {
+        List<NotificationHandle> list = new ArrayList<>();
+        for (NotificationHandle handle : shown) {
+            if (visible.containsKey(handle)) {
+                list.add(handle);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the number of times a shown notification was changed
+     *
+     * @return the number of updates
+     */
+    public synchronized int getUpdateCount() {
+        return updateCount;
+    }
+
+    /**
+     * Gets the number of sounds played
+     *
+     * @return the number of sounds
+     */
+    public synchronized int getSoundCount() {
+        return soundCount;
+    }
+
+    /**
+     * Forgets everything recorded so far
+     */
+    public synchronized void clear() {
+        shown.clear();
+        visible.clear();
+        updateCount = 0;
+        soundCount = 0;
+    }
+}
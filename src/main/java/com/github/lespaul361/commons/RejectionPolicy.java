@@ -0,0 +1,24 @@
+package com.github.lespaul361.commons;
+
+/**
+ * What a {@link DispatchQueue} does with a task when its queue is full
+ *
+ * @author Charles Hamilton
+ */
+public enum RejectionPolicy {
+    /**
+     * Removes the oldest waiting task to make room for the new one
+     */
+    DropOldest,
+    /**
+     * Discards the new task
+     */
+    DropNewest,
+    /**
+     * Makes the caller wait until there is room in the queue. A task queued
+     * from the event dispatch thread or from the queue's own worker is
+     * handled as {@link #DropOldest} instead, since waiting there could
+     * never end.
+     */
+    Block
+}
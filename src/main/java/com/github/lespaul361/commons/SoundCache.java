@@ -0,0 +1,330 @@
+package com.github.lespaul361.commons;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Keeps decoded sounds so each distinct sound is read and parsed once. Sounds
+ * are keyed by classpath resource name, by file path or by a key chosen by
+ * the caller. When the decoded bytes go over the size limit the least
+ * recently played sounds are dropped.
+ * <p>
+ * Sounds are kept converted to the {@link SoundMixer#FORMAT}, so a sound in
+ * an unusual format is only converted once.
+ *
+ * @author Charles Hamilton
+ */
+public class SoundCache {
+
+    /**
+     * The default size limit of 16 MB
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final SoundCache DEFAULT = new SoundCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, DecodedSound> sounds
+            = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeInBytes = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long decodeNanos = 0;
+
+    /**
+     * Constructs a new <code>SoundCache</code>
+     *
+     * @param maxBytes the most decoded bytes to keep
+     */
+    public SoundCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes cannot be negative");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Gets the cache shared by the notification classes
+     *
+     * @return the default cache
+     */
+    public static SoundCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets a sound from the classpath, decoding it the first time
+     *
+     * @param name the resource name, such as
+     * <code>/Windows Notify System Generic.wav</code>
+     * @return the decoded sound
+     * @throws IOException if the resource cannot be found or read
+     * @throws UnsupportedAudioFileException if the resource is not a known
+     * audio format
+     */
+    public DecodedSound getResource(String name) throws IOException,
+            UnsupportedAudioFileException {
+        String resource = name.startsWith("/") ? name : "/" + name;
+        String key = "resource:" + resource;
+        DecodedSound sound = get(key);
+        if (sound != null) {
+            return sound;
+        }
+        InputStream in = SoundCache.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("Resource not found: " + resource);
+        }
+        return get(key, in);
+    }
+
+    /**
+     * Gets a sound from a file, decoding it the first time
+     *
+     * @param file the sound file
+     * @return the decoded sound
+     * @throws IOException if the file cannot be read
+     * @throws UnsupportedAudioFileException if the file is not a known audio
+     * format
+     */
+    public DecodedSound getFile(File file) throws IOException,
+            UnsupportedAudioFileException {
+        String key = "file:" + file.getAbsolutePath();
+        DecodedSound sound = get(key);
+        if (sound != null) {
+            return sound;
+        }
+        return get(key, new FileInputStream(file));
+    }
+
+    /**
+     * Gets the sound for a key, decoding the stream if the key is not cached
+     * yet. The stream is always closed, and is only read if it is decoded.
+     *
+     * @param key the key for the sound
+     * @param in a stream with the sound
+     * @return the decoded sound
+     * @throws IOException if the stream cannot be read
+     * @throws UnsupportedAudioFileException if the stream is not a known audio
+     * format
+     */
+    public DecodedSound get(String key, InputStream in) throws IOException,
+            UnsupportedAudioFileException {
+        DecodedSound sound;
+        long start = System.nanoTime();
+        try {
+            sound = get(key);
+            if (sound != null) {
+                return sound;
+            }
+            sound = decode(in);
+        } finally {
+            in.close();
+        }
+        long elapsed = System.nanoTime() - start;
+        synchronized (sounds) {
+            missCount++;
+            decodeNanos += elapsed;
+        }
+        return putIfAbsent(key, sound);
+    }
+
+    /**
+     * Gets a sound that is already cached
+     *
+     * @param key the key for the sound
+     * @return the sound or <code>null</code> if it is not cached
+     */
+    public DecodedSound get(String key) {
+        synchronized (sounds) {
+            DecodedSound sound = sounds.get(key);
+            if (sound != null) {
+                hitCount++;
+            }
+            return sound;
+        }
+    }
+
+    /**
+     * Adds a decoded sound under a key, replacing any sound already there
+     *
+     * @param key the key for the sound
+     * @param sound the sound
+     */
+    public void put(String key, DecodedSound sound) {
+        synchronized (sounds) {
+            DecodedSound old = sounds.remove(key);
+            if (old != null) {
+                sizeInBytes -= old.getSizeInBytes();
+            }
+            add(key, sound);
+        }
+    }
+
+    /**
+     * Removes a sound
+     *
+     * @param key the key for the sound
+     */
+    public void remove(String key) {
+        synchronized (sounds) {
+            DecodedSound old = sounds.remove(key);
+            if (old != null) {
+                sizeInBytes -= old.getSizeInBytes();
+            }
+        }
+    }
+
+    /**
+     * Removes all sounds
+     */
+    public void clear() {
+        synchronized (sounds) {
+            sounds.clear();
+            sizeInBytes = 0;
+        }
+    }
+
+    /**
+     * Gets the number of cached sounds
+     *
+     * @return the number of sounds
+     */
+    public int size() {
+        synchronized (sounds) {
+            return sounds.size();
+        }
+    }
+
+    /**
+     * Gets the number of decoded bytes held
+     *
+     * @return the size in bytes
+     */
+    public long getSizeInBytes() {
+        synchronized (sounds) {
+            return sizeInBytes;
+        }
+    }
+
+    /**
+     * Gets the number of times a sound was found already decoded
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        synchronized (sounds) {
+            return hitCount;
+        }
+    }
+
+    /**
+     * Gets the number of times a sound had to be decoded
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        synchronized (sounds) {
+            return missCount;
+        }
+    }
+
+    /**
+     * Gets the total time spent decoding sounds for this cache
+     *
+     * @return the decode time in nanoseconds
+     */
+    public long getDecodeNanos() {
+        synchronized (sounds) {
+            return decodeNanos;
+        }
+    }
+
+    /**
+     * Gets the most decoded bytes this cache keeps
+     *
+     * @return the size limit in bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Decodes a sound into PCM bytes in the {@link SoundMixer#FORMAT}
+     * without caching it. Other sample sizes, rates, channel counts and
+     * encodings are converted. The stream is read to the end but not closed.
+     *
+     * @param in a stream with the sound
+     * @return the decoded sound
+     * @throws IOException if the stream cannot be read
+     * @throws UnsupportedAudioFileException if the stream is not a known audio
+     * format or cannot be converted
+     */
+    public static DecodedSound decode(InputStream in) throws IOException,
+            UnsupportedAudioFileException {
+        return decode(openPcm(in));
+    }
+
+    /**
+     * Reads the rest of an already opened PCM stream into a sound in the
+     * mixer format
+     */
+    static DecodedSound decode(AudioInputStream audioStream) throws IOException,
+            UnsupportedAudioFileException {
+        return SoundConverter.normalize(audioStream);
+    }
+
+    /**
+     * Opens a sound stream that gives PCM samples, converting other
+     * encodings to 16 bit signed PCM
+     */
+    static AudioInputStream openPcm(InputStream in) throws IOException,
+            UnsupportedAudioFileException {
+        InputStream bin = in instanceof BufferedInputStream ? in
+                : new BufferedInputStream(in);
+        AudioInputStream audioStream = AudioSystem.getAudioInputStream(bin);
+        AudioFormat format = audioStream.getFormat();
+        if (!AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding())
+                && !AudioFormat.Encoding.PCM_UNSIGNED.equals(format.getEncoding())) {
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED,
+                    format.getSampleRate(), 16, format.getChannels(),
+                    format.getChannels() * 2, format.getSampleRate(), false);
+            audioStream = AudioSystem.getAudioInputStream(pcm, audioStream);
+        }
+        return audioStream;
+    }
+
+    private DecodedSound putIfAbsent(String key, DecodedSound sound) {
+        synchronized (sounds) {
+            DecodedSound existing = sounds.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            add(key, sound);
+            return sound;
+        }
+    }
+
+    private void add(String key, DecodedSound sound) {
+        if (sound.getSizeInBytes() > maxBytes) {
+            // too big to ever fit, hand it back without caching
+            return;
+        }
+        sounds.put(key, sound);
+        sizeInBytes += sound.getSizeInBytes();
+        while (sizeInBytes > maxBytes) {
+            Map.Entry<String, DecodedSound> eldest
+                    = sounds.entrySet().iterator().next();
+            sounds.remove(eldest.getKey());
+            sizeInBytes -= eldest.getValue().getSizeInBytes();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.lespaul361.commons;
+
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Converts sounds to the {@link SoundMixer#FORMAT} so every decoded sound can
+ * be mixed. The converters built into Java sound are used when they can do
+ * the whole job. Otherwise the sound is turned into 16 bit PCM at its own
+ * rate and then resampled and remapped to stereo here.
+ *
+ * @author Charles Hamilton
+ */
+final class SoundConverter {
+
+    private SoundConverter() {
+    }
+
+    /**
+     * Reads the rest of a PCM stream and converts it to the mixer format
+     *
+     * @param in the sound to convert
+     * @return the converted sound
+     * @throws IOException if the stream cannot be read
+     * @throws UnsupportedAudioFileException if the sample format cannot be
+     * converted
+     */
+    static DecodedSound normalize(AudioInputStream in) throws IOException,
+            UnsupportedAudioFileException {
+        AudioFormat target = SoundMixer.FORMAT;
+        AudioFormat source = in.getFormat();
+        if (source.matches(target)) {
+            return new DecodedSound(target, IOUtils.toByteArray(in));
+        }
+        if (AudioSystem.isConversionSupported(target, source)) {
+            return new DecodedSound(target, IOUtils.toByteArray(
+                    AudioSystem.getAudioInputStream(target, in)));
+        }
+        if (!(source.getSampleRate() > 0)) {
+            throw new UnsupportedAudioFileException(
+                    "Cannot convert sound with an unknown sample rate: " + source);
+        }
+        AudioFormat pcm16 = new AudioFormat(source.getSampleRate(), 16,
+                source.getChannels(), true, false);
+        AudioInputStream pcm = in;
+        if (!source.matches(pcm16)) {
+            if (!AudioSystem.isConversionSupported(pcm16, source)) {
+                throw new UnsupportedAudioFileException(
+                        "Cannot convert sound from " + source);
+            }
+            pcm = AudioSystem.getAudioInputStream(pcm16, in);
+        }
+        byte[] data = IOUtils.toByteArray(pcm);
+        return new DecodedSound(target, resample(data, source.getChannels(),
+                source.getSampleRate(), target.getSampleRate()));
+    }
+
+    /**
+     * Resamples 16 bit little endian samples by linear interpolation and
+     * maps them to stereo. Mono is copied to both sides and channels past the
+     * second are left out.
+     *
+     * @throws IllegalArgumentException if a rate is not positive, such as
+     * <code>AudioSystem.NOT_SPECIFIED</code>, or the result would not fit in
+     * an array
+     */
+    static byte[] resample(byte[] data, int channels, float fromRate,
+            float toRate) {
+        if (!(fromRate > 0) || !(toRate > 0)) {
+            throw new IllegalArgumentException("sample rates must be positive: "
+                    + fromRate + " to " + toRate);
+        }
+        int inFrames = data.length / (2 * channels);
+        if (inFrames == 0) {
+            return new byte[0];
+        }
+        double outFrames = Math.floor((double) inFrames * toRate / fromRate);
+        if (outFrames * 4 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("sound is too long to resample");
+        }
+        byte[] out = new byte[(int) outFrames * 4];
+        double step = fromRate / toRate;
+        for (int i = 0; i < outFrames; i++) {
+            double pos = i * step;
+            int frame = (int) pos;
+            double frac = pos - frame;
+            int next = Math.min(frame + 1, inFrames - 1);
+            for (int c = 0; c < 2; c++) {
+                int channel = Math.min(c, channels - 1);
+                int a = sample(data, frame, channel, channels);
+                int b = sample(data, next, channel, channels);
+                int value = (int) Math.round(a + (b - a) * frac);
+                int o = i * 4 + c * 2;
+                out[o] = (byte) value;
+                out[o + 1] = (byte) (value >> 8);
+            }
+        }
+        return out;
+    }
+
+    private static int sample(byte[] data, int frame, int channel, int channels) {
+        int i = (frame * channels + channel) * 2;
+        return (short) ((data[i] & 0xff) | (data[i + 1] << 8));
+    }
+}
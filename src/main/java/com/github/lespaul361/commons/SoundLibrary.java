@@ -0,0 +1,406 @@
+package com.github.lespaul361.commons;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * A set of sounds read from a directory or a zip archive and looked up by
+ * name. Opening a library only lists the sounds and memory maps their
+ * files, so it is fast and the sound data stays off the heap. A sound is
+ * decoded the first time it is played and kept in the {@link SoundCache}.
+ * Long sounds are streamed straight from the mapped file instead.
+ * <p>
+ * Sounds are named by their path in the directory or archive without the
+ * extension, such as <code>disk-full</code> or <code>alerts/disk-full</code>,
+ * so two files that differ only in their extension cannot both be opened.
+ * Sounds stored uncompressed in a zip archive are mapped too. Compressed
+ * entries are read from the archive when they are needed.
+ * <pre>
+ * SoundLibrary sounds = SoundLibrary.open(new File("sounds.zip"));
+ * new DisplayNotification.NotificationBuilder("Disk", "Almost full")
+ *         .sound(sounds, "disk-full")
+ *         .showNotification();
+ * </pre>
+ *
+ * @author Charles Hamilton
+ */
+public class SoundLibrary {
+
+    private static final String[] EXTENSIONS = {".wav", ".au", ".aif", ".aiff",
+        ".aifc"};
+
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL = 0x06054b50;
+    private static final int STORED = 0;
+
+    private final String source;
+    private final Map<String, Entry> entries;
+    private final ZipFile zip;
+
+    private SoundLibrary(String source, Map<String, Entry> entries, ZipFile zip) {
+        this.source = source;
+        this.entries = entries;
+        this.zip = zip;
+    }
+
+    /**
+     * Opens the sounds in a directory and its sub directories, or in a zip
+     * archive
+     *
+     * @param file the directory or archive
+     * @return the library
+     * @throws IOException if the directory or archive cannot be read
+     */
+    public static SoundLibrary open(File file) throws IOException {
+        if (file.isDirectory()) {
+            return openDirectory(file.toPath());
+        }
+        return openZip(file);
+    }
+
+    /**
+     * Gets the names of the sounds in this library
+     *
+     * @return the sound names
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * Whether this library has a sound
+     *
+     * @param name the name of the sound
+     * @return <code>true</code> if the sound is in this library
+     */
+    public boolean contains(String name) {
+        return entries.containsKey(name);
+    }
+
+    /**
+     * Gets a sound, decoding it the first time. Decoded sounds are kept in
+     * the default {@link SoundCache}.
+     *
+     * @param name the name of the sound
+     * @return the decoded sound
+     * @throws IOException if there is no such sound or it cannot be read
+     * @throws UnsupportedAudioFileException if the sound is not a known audio
+     * format
+     */
+    public DecodedSound getSound(String name) throws IOException,
+            UnsupportedAudioFileException {
+        Entry entry = getEntry(name);
+        DecodedSound cached = SoundCache.getDefault().get(entry.key);
+        if (cached != null) {
+            return cached;
+        }
+        return SoundCache.getDefault().get(entry.key, openStream(entry));
+    }
+
+    /**
+     * Opens a stream over a sound without decoding it. For a mapped sound
+     * the stream reads straight from the mapped file.
+     *
+     * @param name the name of the sound
+     * @return a stream with the sound
+     * @throws IOException if there is no such sound or it cannot be read
+     */
+    public InputStream openStream(String name) throws IOException {
+        return openStream(getEntry(name));
+    }
+
+    /**
+     * Whether a sound is long enough to be streamed instead of decoded and
+     * cached. Only the header of the sound is read, once.
+     *
+     * @param name the name of the sound
+     * @return <code>true</code> if the sound should be streamed
+     * @throws IOException if there is no such sound or it cannot be read
+     * @throws UnsupportedAudioFileException if the sound is not a known audio
+     * format
+     */
+    public boolean isLong(String name) throws IOException,
+            UnsupportedAudioFileException {
+        Entry entry = getEntry(name);
+        synchronized (entry) {
+            if (entry.isLong == null) {
+                try (InputStream in = openStream(entry);
+                        AudioInputStream audio = SoundCache.openPcm(in)) {
+                    entry.isLong = SoundPlayer.isLong(audio.getFormat(),
+                            audio.getFrameLength());
+                }
+            }
+            return entry.isLong;
+        }
+    }
+
+    /**
+     * Closes the archive the library was opened from. Mapped sounds are
+     * released once they are no longer used.
+     *
+     * @throws IOException if the archive cannot be closed
+     */
+    public void close() throws IOException {
+        if (zip != null) {
+            zip.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SoundLibrary[" + source + ", " + entries.size() + " sounds]";
+    }
+
+    private Entry getEntry(String name) throws IOException {
+        Entry entry = entries.get(name);
+        if (entry == null) {
+            throw new IOException("No sound named " + name + " in " + source);
+        }
+        return entry;
+    }
+
+    private InputStream openStream(Entry entry) throws IOException {
+        if (entry.data != null) {
+            return new ByteBufferInputStream(entry.data.duplicate());
+        }
+        ZipEntry zipEntry = zip.getEntry(entry.path);
+        if (zipEntry == null) {
+            throw new IOException("Entry " + entry.path + " is missing from "
+                    + source);
+        }
+        return zip.getInputStream(zipEntry);
+    }
+
+    private static SoundLibrary openDirectory(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (java.util.stream.Stream<Path> walk = Files.walk(dir)) {
+            walk.filter(Files::isRegularFile).forEach(files::add);
+        }
+        Collections.sort(files);
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        String prefix = "library:" + dir.toAbsolutePath() + "!";
+        for (Path file : files) {
+            String path = dir.relativize(file).toString()
+                    .replace(File.separatorChar, '/');
+            String name = soundName(path);
+            if (name == null || Files.size(file) == 0) {
+                continue;
+            }
+            MappedByteBuffer data;
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ)) {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                        channel.size());
+            }
+            put(entries, name, new Entry(prefix + path, path, data), dir);
+        }
+        return new SoundLibrary(dir.toString(), entries, null);
+    }
+
+    private static SoundLibrary openZip(File file) throws IOException {
+        MappedByteBuffer archive;
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            archive = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        }
+        archive.order(ByteOrder.LITTLE_ENDIAN);
+        int end = findEndOfCentral(archive);
+        int count = archive.getShort(end + 10) & 0xffff;
+        long offset = archive.getInt(end + 16) & 0xffffffffL;
+        if (offset >= archive.capacity()) {
+            throw new IOException("Unsupported zip archive (zip64?): " + file);
+        }
+        String prefix = "library:" + file.getAbsolutePath() + "!";
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        int pos = (int) offset;
+        for (int i = 0; i < count; i++) {
+            if (archive.getInt(pos) != CENTRAL_HEADER) {
+                throw new IOException("Bad zip central directory in " + file);
+            }
+            int method = archive.getShort(pos + 10) & 0xffff;
+            long size = archive.getInt(pos + 20) & 0xffffffffL;
+            int nameLength = archive.getShort(pos + 28) & 0xffff;
+            int extraLength = archive.getShort(pos + 30) & 0xffff;
+            int commentLength = archive.getShort(pos + 32) & 0xffff;
+            long local = archive.getInt(pos + 42) & 0xffffffffL;
+            byte[] nameBytes = new byte[nameLength];
+            ByteBuffer nameBuffer = archive.duplicate();
+            nameBuffer.position(pos + 46);
+            nameBuffer.get(nameBytes);
+            String path = new String(nameBytes, StandardCharsets.UTF_8);
+            pos += 46 + nameLength + extraLength + commentLength;
+            String name = soundName(path);
+            if (name == null || path.endsWith("/")) {
+                continue;
+            }
+            ByteBuffer data = null;
+            if (method == STORED && local < archive.capacity()) {
+                data = storedData(archive, (int) local, size, file);
+            }
+            put(entries, name, new Entry(prefix + path, path, data), file);
+        }
+        ZipFile zip = null;
+        for (Entry entry : entries.values()) {
+            if (entry.data == null) {
+                // only compressed entries need the archive opened
+                zip = new ZipFile(file);
+                break;
+            }
+        }
+        return new SoundLibrary(file.getPath(), entries, zip);
+    }
+
+    /**
+     * Adds a sound, refusing a second file with the same name such as
+     * <code>beep.wav</code> next to <code>beep.au</code>
+     */
+    private static void put(Map<String, Entry> entries, String name,
+            Entry entry, Object source) throws IOException {
+        Entry other = entries.putIfAbsent(name, entry);
+        if (other != null) {
+            throw new IOException("Sounds " + other.path + " and " + entry.path
+                    + " in " + source + " both have the name " + name);
+        }
+    }
+
+    /**
+     * Slices the data of an uncompressed entry out of the mapped archive
+     */
+    private static ByteBuffer storedData(ByteBuffer archive, int local, long size,
+            File file) throws IOException {
+        if (archive.getInt(local) != LOCAL_HEADER) {
+            throw new IOException("Bad zip local header in " + file);
+        }
+        int nameLength = archive.getShort(local + 26) & 0xffff;
+        int extraLength = archive.getShort(local + 28) & 0xffff;
+        long start = local + 30L + nameLength + extraLength;
+        if (start + size > archive.capacity()) {
+            throw new IOException("Truncated zip entry in " + file);
+        }
+        ByteBuffer data = archive.duplicate();
+        data.position((int) start);
+        data.limit((int) (start + size));
+        return data.slice();
+    }
+
+    private static int findEndOfCentral(ByteBuffer archive) throws IOException {
+        // the record is 22 bytes plus a comment of up to 64 KB
+        int last = archive.capacity() - 22;
+        int first = Math.max(0, last - 0xffff);
+        for (int pos = last; pos >= first; pos--) {
+            if (archive.getInt(pos) == END_OF_CENTRAL) {
+                return pos;
+            }
+        }
+        throw new IOException("Not a zip archive");
+    }
+
+    /**
+     * The name for a sound file, or <code>null</code> if it is not a sound
+     */
+    private static String soundName(String path) {
+        String lower = path.toLowerCase();
+        for (String extension : EXTENSIONS) {
+            if (lower.endsWith(extension)) {
+                return path.substring(0, path.length() - extension.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One sound in the library
+     */
+    private static final class Entry {
+
+        private final String key;
+        private final String path;
+        private final ByteBuffer data;
+        private Boolean isLong = null;
+
+        Entry(String key, String path, ByteBuffer data) {
+            this.key = key;
+            this.path = path;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Reads a buffer without copying it first
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+        private int mark = 0;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            mark = buffer.position();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.position(mark);
+        }
+    }
+}
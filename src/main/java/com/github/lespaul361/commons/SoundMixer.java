@@ -0,0 +1,386 @@
+package com.github.lespaul361.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Mixes sounds in software and plays them through one output line, so a
+ * burst of notifications uses a single hardware line and a fixed amount of
+ * work however many sounds start together. A mixing thread sums the playing
+ * sounds, called voices, and turns the level down when the sum would clip.
+ * <p>
+ * At most <code>maxVoices</code> sounds play at once. When all are in use a
+ * new sound takes the place of a playing sound with a lower
+ * {@link NotificationPriority}, or is skipped. The same sound started again
+ * within a few milliseconds is merged into the voice already playing it
+ * instead of being played twice.
+ * <p>
+ * Only sounds in {@link #FORMAT} can be mixed. The line is opened on the
+ * first sound and closed again after a few seconds of silence, or opened
+ * again if the sound system closes it.
+ *
+ * @author Charles Hamilton
+ */
+public class SoundMixer {
+
+    /**
+     * The format the mixer plays, 44.1 kHz 16 bit signed little endian
+     * stereo
+     */
+    public static final AudioFormat FORMAT = new AudioFormat(44100, 16, 2,
+            true, false);
+
+    /**
+     * The number of frames mixed at a time, about 12 ms
+     */
+    private static final int BLOCK_FRAMES = 512;
+
+    /**
+     * Sounds started again within this time are merged
+     */
+    private static final long MERGE_NANOS = TimeUnit.MILLISECONDS.toNanos(30);
+
+    /**
+     * How long the line is kept open with nothing playing
+     */
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(3);
+
+    /**
+     * How fast the limiter lets the level back up after turning it down,
+     * per block
+     */
+    private static final float RELEASE = 0.05f;
+
+    private static final SoundMixer DEFAULT = new SoundMixer(8);
+
+    private final int maxVoices;
+    private final List<Voice> voices = new ArrayList<>();
+    private SourceDataLine line = null;
+    private Thread thread = null;
+    private float gain = 1f;
+    private long mergedCount = 0;
+    private long skippedCount = 0;
+
+    /**
+     * Constructs a new <code>SoundMixer</code>
+     *
+     * @param maxVoices the most sounds that play at the same time
+     */
+    public SoundMixer(int maxVoices) {
+        if (maxVoices < 1) {
+            throw new IllegalArgumentException("maxVoices must be at least 1");
+        }
+        this.maxVoices = maxVoices;
+    }
+
+    /**
+     * Gets the mixer used by the notification classes
+     *
+     * @return the default mixer
+     */
+    public static SoundMixer getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Whether a sound can be mixed without converting it first
+     *
+     * @param format the format of the sound
+     * @return <code>true</code> if the format matches {@link #FORMAT}
+     */
+    public static boolean canMix(AudioFormat format) {
+        return format.matches(FORMAT);
+    }
+
+    /**
+     * Starts a sound with {@link NotificationPriority#Normal} priority
+     *
+     * @param sound the sound to play, in {@link #FORMAT}
+     * @return <code>false</code> if every voice is busy with sounds of the
+     * same or higher priority
+     * @throws LineUnavailableException if the output line cannot be opened
+     */
+    public boolean play(DecodedSound sound) throws LineUnavailableException {
+        return play(sound, NotificationPriority.Normal);
+    }
+
+    /**
+     * Starts a sound. It is mixed in on the next block, within about 12 ms.
+     *
+     * @param sound the sound to play, in {@link #FORMAT}
+     * @param priority the priority of the sound
+     * @return <code>false</code> if every voice is busy with sounds of the
+     * same or higher priority
+     * @throws LineUnavailableException if the output line cannot be opened
+     */
+    public boolean play(DecodedSound sound, NotificationPriority priority)
+            throws LineUnavailableException {
+        if (!canMix(sound.getFormat())) {
+            throw new IllegalArgumentException("sound is not in the mixer format: "
+                    + sound.getFormat());
+        }
+        if (priority == null) {
+            priority = NotificationPriority.Normal;
+        }
+        synchronized (this) {
+            if (line == null) {
+                open();
+            }
+            return addVoice(sound, priority, System.nanoTime());
+        }
+    }
+
+    /**
+     * Adds a voice for a sound, merging it into the same sound started a
+     * moment ago or taking the place of a less important voice. Must be
+     * called while holding the lock.
+     *
+     * @return <code>false</code> if the sound was skipped
+     */
+    boolean addVoice(DecodedSound sound, NotificationPriority priority,
+            long now) {
+        for (Voice voice : voices) {
+            if (voice.sound == sound && now - voice.started <= MERGE_NANOS) {
+                // the same sound a moment ago, play it once
+                if (priority.compareTo(voice.priority) > 0) {
+                    voice.priority = priority;
+                }
+                mergedCount++;
+                return true;
+            }
+        }
+        if (voices.size() >= maxVoices) {
+            Voice victim = findVictim(priority);
+            if (victim == null) {
+                skippedCount++;
+                return false;
+            }
+            voices.remove(victim);
+        }
+        voices.add(new Voice(sound, priority, now));
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Opens the output line ahead of the first sound. Like after a sound it
+     * is closed again after a few seconds of silence, but the sound system
+     * stays loaded.
+     *
+     * @throws LineUnavailableException if the output line cannot be opened
+     */
+    public synchronized void prepare() throws LineUnavailableException {
+        if (line == null) {
+            open();
+        }
+    }
+
+    /**
+     * Gets the number of sounds playing
+     *
+     * @return the number of voices in use
+     */
+    public synchronized int getActiveVoices() {
+        return voices.size();
+    }
+
+    /**
+     * Gets the most sounds that play at the same time
+     *
+     * @return the voice limit
+     */
+    public int getMaxVoices() {
+        return maxVoices;
+    }
+
+    /**
+     * Gets the number of sounds merged into one already playing
+     *
+     * @return the number of merged sounds
+     */
+    public synchronized long getMergedCount() {
+        return mergedCount;
+    }
+
+    /**
+     * Gets the number of sounds skipped because every voice was busy
+     *
+     * @return the number of skipped sounds
+     */
+    public synchronized long getSkippedCount() {
+        return skippedCount;
+    }
+
+    /**
+     * Whether the output line is open
+     *
+     * @return <code>true</code> if the mixer holds a line
+     */
+    public synchronized boolean isOpen() {
+        return line != null;
+    }
+
+    /**
+     * Stops every sound and closes the output line. The mixer opens it again
+     * for the next sound.
+     */
+    public void close() {
+        Thread t;
+        synchronized (this) {
+            voices.clear();
+            t = thread;
+            // the old thread closes its own line
+            line = null;
+            thread = null;
+        }
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    /**
+     * Opens the line and starts the mixing thread. Must be called while
+     * holding the lock.
+     */
+    private void open() throws LineUnavailableException {
+        SourceDataLine l = (SourceDataLine) AudioSystem.getLine(
+                new DataLine.Info(SourceDataLine.class, FORMAT));
+        try {
+            l.open(FORMAT, BLOCK_FRAMES * FORMAT.getFrameSize() * 4);
+        } catch (LineUnavailableException | RuntimeException e) {
+            l.close();
+            throw e;
+        }
+        l.start();
+        line = l;
+        gain = 1f;
+        thread = new NamedThreadFactory("notification-mixer").newThread(
+                new Runnable() {
+            @Override
+            public void run() {
+                mixLoop(l);
+            }
+        });
+        thread.start();
+    }
+
+    private void mixLoop(SourceDataLine l) {
+        int[] mix = new int[BLOCK_FRAMES * FORMAT.getChannels()];
+        byte[] out = new byte[BLOCK_FRAMES * FORMAT.getFrameSize()];
+        try {
+            while (true) {
+                synchronized (this) {
+                    long idleSince = System.nanoTime();
+                    while (voices.isEmpty() || line != l) {
+                        long left = IDLE_NANOS - (System.nanoTime() - idleSince);
+                        if (line != l) {
+                            // closed, a new line may already be in use
+                            return;
+                        }
+                        if (left <= 0) {
+                            line = null;
+                            thread = null;
+                            return;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(this, left);
+                    }
+                    mixBlock(mix, out);
+                }
+                if (!l.isOpen()) {
+                    // closed by the sound system, such as when the device
+                    // went away; the next sound opens a new line
+                    synchronized (this) {
+                        if (line == l) {
+                            voices.clear();
+                            line = null;
+                            thread = null;
+                        }
+                    }
+                    System.err.println("Sound line was closed: " + l.getLineInfo());
+                    return;
+                }
+                // blocks while the line buffer is full, which paces the loop
+                l.write(out, 0, out.length);
+            }
+        } catch (InterruptedException e) {
+            l.flush();
+        } finally {
+            l.drain();
+            l.close();
+        }
+    }
+
+    /**
+     * Sums one block of every voice into the output buffer. Must be called
+     * while holding the lock.
+     */
+    void mixBlock(int[] mix, byte[] out) {
+        Arrays.fill(mix, 0);
+        int peak = 0;
+        for (int v = voices.size() - 1; v >= 0; v--) {
+            Voice voice = voices.get(v);
+            byte[] data = voice.sound.getData();
+            int end = voice.sound.getSizeInBytes();
+            int pos = voice.position;
+            for (int i = 0; i < mix.length && pos + 1 < end; i++, pos += 2) {
+                mix[i] += (short) ((data[pos] & 0xff) | (data[pos + 1] << 8));
+            }
+            voice.position = pos;
+            if (pos + 1 >= end) {
+                voices.remove(v);
+            }
+        }
+        for (int sample : mix) {
+            peak = Math.max(peak, Math.abs(sample));
+        }
+        // turn down at once when the sum would clip, come back up slowly
+        float target = peak > Short.MAX_VALUE ? (float) Short.MAX_VALUE / peak : 1f;
+        gain = target < gain ? target : Math.min(target, gain + RELEASE);
+        for (int i = 0, b = 0; i < mix.length; i++, b += 2) {
+            int sample = (int) (mix[i] * gain);
+            sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+            out[b] = (byte) sample;
+            out[b + 1] = (byte) (sample >> 8);
+        }
+    }
+
+    /**
+     * Finds the voice with the lowest priority below the given one, the
+     * oldest first. Must be called while holding the lock.
+     */
+    private Voice findVictim(NotificationPriority priority) {
+        Voice victim = null;
+        NotificationPriority lowest = priority;
+        for (Voice voice : voices) {
+            if (voice.priority.compareTo(lowest) < 0) {
+                lowest = voice.priority;
+                victim = voice;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * A sound being played and how far it has got
+     */
+    private static final class Voice {
+
+        private final DecodedSound sound;
+        private final long started;
+        private NotificationPriority priority;
+        private int position = 0;
+
+        Voice(DecodedSound sound, NotificationPriority priority, long started) {
+            this.sound = sound;
+            this.priority = priority;
+            this.started = started;
+        }
+    }
+}
@@ -5,14 +5,13 @@
  */
 package com.github.lespaul361.commons;
 
-import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import javax.sound.sampled.AudioFileFormat;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
-import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
 
 /**
  *
@@ -20,23 +19,92 @@ import javax.sound.sampled.DataLine;
  */
 class SoundPlayer {
 
-    public static void playSound(InputStream in) {
+    /**
+     * Sounds longer than this are streamed instead of played from a clip
+     */
+    static final long STREAM_MILLIS = 5000;
+
+    public static boolean playSound(InputStream in) {
+        return playSound(in, NotificationPriority.Normal);
+    }
+
+    /**
+     * Plays a sound from a stream and closes the stream. Short sounds are
+     * decoded and mixed, long ones are streamed on a thread of their own so
+     * the calling sound thread is free for the next sound.
+     */
+    public static boolean playSound(InputStream in, NotificationPriority priority) {
+        AudioInputStream audioStream = null;
+        boolean started = false;
         try {
-            InputStream ain = null;
-            if (in instanceof BufferedInputStream) {
-                ain = in;
-            } else {
-                ain = new BufferedInputStream(in);
+            audioStream = SoundCache.openPcm(in);
+            if (!isLong(audioStream.getFormat(), audioStream.getFrameLength())) {
+                return playSound(SoundCache.decode(audioStream), priority);
+            }
+            AudioFormat format = audioStream.getFormat();
+            if (!SoundMixer.canMix(format)
+                    && AudioSystem.isConversionSupported(SoundMixer.FORMAT, format)) {
+                audioStream = AudioSystem.getAudioInputStream(SoundMixer.FORMAT,
+                        audioStream);
+            }
+            // the player closes the stream once it has been played
+            StreamingPlayer.getDefault().start(audioStream);
+            started = true;
+            return true;
+        } catch (IOException | UnsupportedAudioFileException e) {
+            System.err.println("Unable to read sound: " + e.getMessage());
+        } catch (LineUnavailableException | RuntimeException e) {
+            System.err.println("Unable to play sound: " + e.getMessage());
+        } finally {
+            if (!started) {
+                closeQuietly(audioStream);
+                closeQuietly(in);
             }
-            AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(ain);
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(ain);
-            AudioFormat format = fileFormat.getFormat();
-            DataLine.Info info = new DataLine.Info(Clip.class, format);
-            Clip clip = (Clip) AudioSystem.getLine(info);
-            clip.open(audioStream);
-            clip.start();
-        } catch (Exception e) {
         }
+        return false;
+    }
+
+    public static boolean playSound(DecodedSound sound) {
+        return playSound(sound, NotificationPriority.Normal);
+    }
 
+    public static boolean playSound(DecodedSound sound,
+            NotificationPriority priority) {
+        try {
+            // every decoded sound is in the mixer format, see SoundConverter,
+            // so it is mixed into the one shared line however many are playing
+            SoundMixer mixer = SoundMixer.getDefault();
+            if (mixer.play(sound, priority)) {
+                return true;
+            }
+            System.err.println("Unable to play sound: all "
+                    + mixer.getMaxVoices() + " voices are in use");
+        } catch (LineUnavailableException | RuntimeException e) {
+            System.err.println("Unable to play sound: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private static void closeQuietly(InputStream in) {
+        if (in == null) {
+            return;
+        }
+        try {
+            in.close();
+        } catch (IOException e) {
+            // nothing more to do with it
+        }
+    }
+
+    /**
+     * Whether a sound is long enough to stream. Sounds of unknown length are
+     * streamed.
+     */
+    static boolean isLong(AudioFormat format, long frameLength) {
+        if (frameLength == AudioSystem.NOT_SPECIFIED
+                || format.getFrameRate() == AudioSystem.NOT_SPECIFIED) {
+            return true;
+        }
+        return frameLength * 1000 / format.getFrameRate() > STREAM_MILLIS;
     }
 }
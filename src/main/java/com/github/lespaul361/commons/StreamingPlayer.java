@@ -0,0 +1,333 @@
+package com.github.lespaul361.commons;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Plays long sounds by writing them to a <code>SourceDataLine</code> a chunk
+ * at a time instead of loading them into a <code>Clip</code>. Memory use
+ * stays the same however long the sound is. Chunk buffers are pooled and a
+ * line is kept open after playing so the next sound in the same format
+ * reuses it. The total number of open lines is capped.
+ * <p>
+ * {@link #play(AudioInputStream)} blocks the calling thread until the sound
+ * has finished. {@link #start(AudioInputStream)} plays on a thread of its own
+ * so the caller, such as a sound dispatch thread, is free for the next
+ * sound.
+ *
+ * @author Charles Hamilton
+ */
+public class StreamingPlayer {
+
+    /**
+     * The size of each chunk written to a line
+     */
+    public static final int CHUNK_SIZE = 16 * 1024;
+
+    /**
+     * The most chunk buffers kept for reuse
+     */
+    private static final int MAX_POOLED_BUFFERS = 8;
+
+    private static final StreamingPlayer DEFAULT = new StreamingPlayer(4);
+
+    private final int maxLines;
+    private final ThreadFactory threads = new NamedThreadFactory("notification-stream");
+    private final Map<String, ArrayDeque<SourceDataLine>> idle = new HashMap<>();
+    private final ArrayDeque<byte[]> buffers = new ArrayDeque<>();
+    private int openLines = 0;
+    private int playingLines = 0;
+    private boolean closed = false;
+
+    /**
+     * Constructs a new <code>StreamingPlayer</code>
+     *
+     * @param maxLines the most lines that can be open at the same time
+     */
+    public StreamingPlayer(int maxLines) {
+        if (maxLines < 1) {
+            throw new IllegalArgumentException("maxLines must be at least 1");
+        }
+        this.maxLines = maxLines;
+    }
+
+    /**
+     * Gets the player used by the notification classes
+     *
+     * @return the default player
+     */
+    public static StreamingPlayer getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Plays a PCM stream to the end. The stream is not closed.
+     *
+     * @param in the sound to play
+     * @throws IOException if the stream cannot be read
+     * @throws LineUnavailableException if every line is in use or the mixer
+     * cannot open a new one
+     */
+    public void play(AudioInputStream in) throws IOException,
+            LineUnavailableException {
+        AudioFormat format = in.getFormat();
+        write(in, format, take(format));
+    }
+
+    /**
+     * Starts playing a PCM stream on a thread of its own and returns. The
+     * line is taken before returning, so a sound that cannot be played is
+     * reported here. The stream is closed when it has been played.
+     *
+     * @param in the sound to play
+     * @throws LineUnavailableException if every line is in use or the mixer
+     * cannot open a new one
+     */
+    public void start(AudioInputStream in) throws LineUnavailableException {
+        AudioFormat format = in.getFormat();
+        SourceDataLine line = take(format);
+        try {
+            threads.newThread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        write(in, format, line);
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Unable to play sound: " + e.getMessage());
+                    } finally {
+                        closeQuietly(in);
+                    }
+                }
+            }).start();
+        } catch (RuntimeException | Error e) {
+            give(format, line, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a stream to a line taken for it and gives the line back
+     */
+    private void write(AudioInputStream in, AudioFormat format,
+            SourceDataLine line) throws IOException {
+        byte[] buffer = takeBuffer();
+        boolean ok = false;
+        try {
+            int chunk = chunkSize(format);
+            int n;
+            while ((n = read(in, buffer, chunk)) > 0) {
+                line.write(buffer, 0, n);
+            }
+            line.drain();
+            ok = true;
+        } finally {
+            giveBuffer(buffer);
+            give(format, line, ok);
+        }
+    }
+
+    /**
+     * Gets the number of lines that are open, playing or not
+     *
+     * @return the number of open lines
+     */
+    public synchronized int getOpenLines() {
+        return openLines;
+    }
+
+    /**
+     * Gets the number of lines that are playing
+     *
+     * @return the number of playing lines
+     */
+    public synchronized int getPlayingLines() {
+        return playingLines;
+    }
+
+    /**
+     * Gets the most lines this player opens at the same time
+     *
+     * @return the line limit
+     */
+    public int getMaxLines() {
+        return maxLines;
+    }
+
+    /**
+     * Closes every idle line. Playing lines are closed when they finish.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        closeIdle();
+    }
+
+    /**
+     * Closes every idle line but keeps the player usable
+     */
+    public void closeIdle() {
+        ArrayDeque<SourceDataLine> toClose = new ArrayDeque<>();
+        synchronized (this) {
+            for (ArrayDeque<SourceDataLine> lines : idle.values()) {
+                toClose.addAll(lines);
+            }
+            idle.clear();
+            openLines -= toClose.size();
+        }
+        for (SourceDataLine line : toClose) {
+            line.close();
+        }
+    }
+
+    private SourceDataLine take(AudioFormat format) throws LineUnavailableException {
+        String key = format.toString();
+        SourceDataLine line = null;
+        SourceDataLine victim = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("player is closed");
+            }
+            ArrayDeque<SourceDataLine> lines = idle.get(key);
+            if (lines != null) {
+                line = lines.poll();
+                if (lines.isEmpty()) {
+                    idle.remove(key);
+                }
+                if (line != null && !line.isOpen()) {
+                    // closed by the sound system while it was idle
+                    openLines--;
+                    line = null;
+                }
+            }
+            if (line == null) {
+                if (openLines >= maxLines) {
+                    victim = takeAnyIdle();
+                    if (victim == null) {
+                        throw new LineUnavailableException("All " + maxLines
+                                + " streaming lines are in use");
+                    }
+                    openLines--;
+                }
+                openLines++;
+            }
+            playingLines++;
+        }
+        if (victim != null) {
+            victim.close();
+        }
+        if (line == null) {
+            try {
+                line = (SourceDataLine) AudioSystem.getLine(
+                        new DataLine.Info(SourceDataLine.class, format));
+                line.open(format, chunkSize(format) * 2);
+            } catch (LineUnavailableException | RuntimeException e) {
+                if (line != null) {
+                    line.close();
+                }
+                synchronized (this) {
+                    openLines--;
+                    playingLines--;
+                }
+                throw e;
+            }
+        }
+        line.start();
+        return line;
+    }
+
+    private void give(AudioFormat format, SourceDataLine line, boolean reuse) {
+        line.stop();
+        synchronized (this) {
+            playingLines--;
+            if (reuse && !closed) {
+                String key = format.toString();
+                ArrayDeque<SourceDataLine> lines = idle.get(key);
+                if (lines == null) {
+                    lines = new ArrayDeque<>();
+                    idle.put(key, lines);
+                }
+                // one idle line per format is enough for sounds played in turn
+                if (lines.isEmpty()) {
+                    lines.push(line);
+                    return;
+                }
+            }
+            openLines--;
+        }
+        line.close();
+    }
+
+    /**
+     * Takes an idle line of any format. Must be called while holding the
+     * lock.
+     */
+    private SourceDataLine takeAnyIdle() {
+        Iterator<ArrayDeque<SourceDataLine>> it = idle.values().iterator();
+        while (it.hasNext()) {
+            ArrayDeque<SourceDataLine> lines = it.next();
+            SourceDataLine line = lines.poll();
+            if (lines.isEmpty()) {
+                it.remove();
+            }
+            if (line != null) {
+                return line;
+            }
+        }
+        return null;
+    }
+
+    private synchronized byte[] takeBuffer() {
+        byte[] buffer = buffers.poll();
+        return buffer == null ? new byte[CHUNK_SIZE] : buffer;
+    }
+
+    private synchronized void giveBuffer(byte[] buffer) {
+        if (buffers.size() < MAX_POOLED_BUFFERS) {
+            buffers.push(buffer);
+        }
+    }
+
+    private static void closeQuietly(AudioInputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            // nothing more to do with it
+        }
+    }
+
+    /**
+     * The chunk size rounded down to whole frames
+     */
+    private static int chunkSize(AudioFormat format) {
+        int frameSize = Math.max(1, format.getFrameSize());
+        return Math.max(frameSize, CHUNK_SIZE - CHUNK_SIZE % frameSize);
+    }
+
+    /**
+     * Fills as much of the chunk as the stream gives, so short reads do not
+     * turn into short writes
+     */
+    private static int read(AudioInputStream in, byte[] buffer, int chunk)
+            throws IOException {
+        int total = 0;
+        while (total < chunk) {
+            int n = in.read(buffer, total, chunk - total);
+            if (n <= 0) {
+                break;
+            }
+            total += n;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.lespaul361.commons;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds named {@link NotificationTemplate}s so a message shape is compiled
+ * once and shown from anywhere by name with
+ * {@link DisplayNotification#template(String)}.
+ *
+ * @author Charles Hamilton
+ */
+public class TemplateRegistry {
+
+    private static final TemplateRegistry DEFAULT = new TemplateRegistry();
+
+    private final ConcurrentHashMap<String, NotificationTemplate> templates
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the registry used by the notification classes
+     *
+     * @return the default registry
+     */
+    public static TemplateRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets a template by name
+     *
+     * @param name the name of the template
+     * @return the template or <code>null</code> if there is none with the
+     * name
+     */
+    public NotificationTemplate getTemplate(String name) {
+        if (name == null) {
+            return null;
+        }
+        return templates.get(name);
+    }
+
+    /**
+     * Adds a template that can be looked up by name, replacing any with the
+     * same name
+     *
+     * @param name the name of the template
+     * @param template the template
+     */
+    public void register(String name, NotificationTemplate template) {
+        if (name == null || template == null) {
+            throw new IllegalArgumentException("name and template cannot be null");
+        }
+        templates.put(name, template);
+    }
+
+    /**
+     * Removes a template added with
+     * {@link #register(String, NotificationTemplate)}
+     *
+     * @param name the name of the template
+     */
+    public void unregister(String name) {
+        templates.remove(name);
+    }
+
+    /**
+     * Gets the names of the registered templates
+     *
+     * @return the names, sorted
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(new TreeSet<>(templates.keySet()));
+    }
+}
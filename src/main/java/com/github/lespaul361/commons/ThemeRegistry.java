@@ -0,0 +1,121 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.ThemePackagePresets;
+import com.theme.ThemePackage;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the <code>ThemePackage</code>s used by notifications so each theme is
+ * made once and shared. The preset themes are made on first use and custom
+ * themes can be registered by name.
+ * <p>
+ * Shared themes must not be changed after they are in use.
+ *
+ * @author Charles Hamilton
+ */
+public class ThemeRegistry {
+
+    private static final ThemeRegistry DEFAULT = new ThemeRegistry();
+
+    private final Map<ThemePackagePresets, ThemePackage> presets
+            = new EnumMap<>(ThemePackagePresets.class);
+    private final ConcurrentHashMap<String, ThemePackage> custom
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the registry used by the notification classes
+     *
+     * @return the default registry
+     */
+    public static ThemeRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Makes every preset theme now instead of on first use
+     */
+    public void preload() {
+        for (ThemePackagePresets preset : ThemePackagePresets.values()) {
+            getTheme(preset);
+        }
+    }
+
+    /**
+     * Gets the shared theme for a preset
+     *
+     * @param preset the preset or <code>null</code> for
+     * {@link ThemePackagePresets#CleanDark}
+     * @return the theme
+     */
+    public ThemePackage getTheme(ThemePackagePresets preset) {
+        if (preset == null) {
+            preset = ThemePackagePresets.CleanDark;
+        }
+        synchronized (presets) {
+            ThemePackage theme = presets.get(preset);
+            if (theme == null) {
+                theme = create(preset);
+                presets.put(preset, theme);
+            }
+            return theme;
+        }
+    }
+
+    /**
+     * Gets a theme by name. Registered themes are checked first and then the
+     * preset names, ignoring case.
+     *
+     * @param name the name of the theme
+     * @return the theme or <code>null</code> if there is none with the name
+     */
+    public ThemePackage getTheme(String name) {
+        if (name == null) {
+            return null;
+        }
+        ThemePackage theme = custom.get(name);
+        if (theme != null) {
+            return theme;
+        }
+        for (ThemePackagePresets preset : ThemePackagePresets.values()) {
+            if (preset.name().equalsIgnoreCase(name)) {
+                return getTheme(preset);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds a theme that can be looked up by name
+     *
+     * @param name the name of the theme
+     * @param themePackage the theme
+     */
+    public void register(String name, ThemePackage themePackage) {
+        if (name == null || themePackage == null) {
+            throw new IllegalArgumentException("name and themePackage cannot be null");
+        }
+        custom.put(name, themePackage);
+    }
+
+    /**
+     * Removes a theme added with {@link #register(String, ThemePackage)}
+     *
+     * @param name the name of the theme
+     */
+    public void unregister(String name) {
+        custom.remove(name);
+    }
+
+    private static ThemePackage create(ThemePackagePresets preset) {
+        switch (preset) {
+            case CleanLight:
+                return com.theme.ThemePackagePresets.cleanLight();
+            case Aqua:
+                return com.theme.ThemePackagePresets.aqua();
+            default:
+                return com.theme.ThemePackagePresets.cleanDark();
+        }
+    }
+}
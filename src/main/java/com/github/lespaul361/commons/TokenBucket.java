@@ -0,0 +1,67 @@
+package com.github.lespaul361.commons;
+
+/**
+ * A token bucket rate limiter. Tokens are added at a steady rate up to a
+ * maximum and each permitted action takes one.
+ *
+ * @author Charles Hamilton
+ */
+class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Constructs a new <code>TokenBucket</code> that starts full
+     *
+     * @param perSecond the number of tokens added each second, or 0 or less
+     * for no limit
+     * @param burst the most tokens that can be saved up
+     */
+    TokenBucket(double perSecond, int burst) {
+        this.tokensPerNano = perSecond / 1e9;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if there is one
+     *
+     * @return <code>true</code> if a token was taken
+     */
+    synchronized boolean tryAcquire() {
+        if (tokensPerNano <= 0) {
+            return true;
+        }
+        refill(System.nanoTime());
+        if (tokens >= 1) {
+            tokens -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets how long until a token will be ready
+     *
+     * @return the wait in nanoseconds, 0 if a token is ready now
+     */
+    synchronized long nanosUntilAvailable() {
+        if (tokensPerNano <= 0) {
+            return 0;
+        }
+        refill(System.nanoTime());
+        if (tokens >= 1) {
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.lespaul361.commons;
+
+import java.lang.reflect.InvocationTargetException;
+import javax.swing.SwingUtilities;
+import javax.swing.UIManager;
+
+/**
+ * Runs the stages of {@link DisplayNotification#warmUp()} and times them
+ *
+ * @author Charles Hamilton
+ */
+final class WarmUp {
+
+    private WarmUp() {
+    }
+
+    /**
+     * Runs every stage for an engine. Stages that need a display or sound
+     * device are left out when the engine's renderer is headless.
+     *
+     * @param engine the engine that will show the notifications
+     * @return how long each stage took
+     */
+    static WarmUpReport run(NotificationEngine engine) {
+        WarmUpReport report = new WarmUpReport();
+        boolean headless = engine.getRenderer().isHeadless();
+        for (WarmUpStage stage : WarmUpStage.values()) {
+            if (headless && (stage == WarmUpStage.Audio
+                    || stage == WarmUpStage.Windows)) {
+                continue;
+            }
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                runStage(stage, engine);
+            } catch (Exception | LinkageError e) {
+                failure = e;
+            }
+            report.record(stage, System.nanoTime() - start, failure);
+        }
+        return report;
+    }
+
+    private static void runStage(WarmUpStage stage, final NotificationEngine engine)
+            throws Exception {
+        switch (stage) {
+            case Toolkit:
+                java.awt.Toolkit.getDefaultToolkit();
+                onEventThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        UIManager.getLookAndFeel();
+                    }
+                });
+                break;
+            case Themes:
+                ThemeRegistry.getDefault().preload();
+                break;
+            case Icons:
+                IconRegistry.getDefault().preload();
+                break;
+            case Sounds:
+                SoundCache.getDefault().getResource(DisplayNotification.DEFAULT_SOUND);
+                break;
+            case Audio:
+                SoundMixer.getDefault().prepare();
+                break;
+            case Windows:
+                onEventThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        engine.getRenderer().warmUp();
+                    }
+                });
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void onEventThread(Runnable runnable) throws Exception {
+        if (SwingUtilities.isEventDispatchThread()) {
+            runnable.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(runnable);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.lespaul361.commons;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long each stage of {@link DisplayNotification#warmUp()} took and
+ * which stages failed. A failed stage does not stop the later ones, the work
+ * it could not do is left for the first notification.
+ *
+ * @author Charles Hamilton
+ */
+public final class WarmUpReport {
+
+    private final Map<WarmUpStage, Long> nanos = new EnumMap<>(WarmUpStage.class);
+    private final Map<WarmUpStage, Throwable> failures
+            = new EnumMap<>(WarmUpStage.class);
+
+    WarmUpReport() {
+    }
+
+    void record(WarmUpStage stage, long elapsedNanos, Throwable failure) {
+        nanos.put(stage, elapsedNanos);
+        if (failure != null) {
+            failures.put(stage, failure);
+        }
+    }
+
+    /**
+     * Gets how long a stage took
+     *
+     * @param stage the stage
+     * @return the time in nanoseconds, or 0 if the stage did not run
+     */
+    public long getNanos(WarmUpStage stage) {
+        Long elapsed = nanos.get(stage);
+        return elapsed == null ? 0 : elapsed;
+    }
+
+    /**
+     * Gets how long a stage took
+     *
+     * @param stage the stage
+     * @return the time in milliseconds, or 0 if the stage did not run
+     */
+    public long getMillis(WarmUpStage stage) {
+        return TimeUnit.NANOSECONDS.toMillis(getNanos(stage));
+    }
+
+    /**
+     * Gets how long the whole warm up took
+     *
+     * @return the time in nanoseconds
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (long elapsed : nanos.values()) {
+            total += elapsed;
+        }
+        return total;
+    }
+
+    /**
+     * Gets why a stage failed
+     *
+     * @param stage the stage
+     * @return the error, or <code>null</code> if the stage did not fail
+     */
+    public Throwable getFailure(WarmUpStage stage) {
+        return failures.get(stage);
+    }
+
+    /**
+     * Whether every stage finished
+     *
+     * @return <code>true</code> if no stage failed
+     */
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("WarmUp[");
+        for (Map.Entry<WarmUpStage, Long> entry : nanos.entrySet()) {
+            sb.append(entry.getKey()).append(' ')
+                    .append(TimeUnit.NANOSECONDS.toMillis(entry.getValue()))
+                    .append(" ms");
+            Throwable failure = failures.get(entry.getKey());
+            if (failure != null) {
+                sb.append(" (failed: ").append(failure).append(')');
+            }
+            sb.append(", ");
+        }
+        return sb.append("total ")
+                .append(TimeUnit.NANOSECONDS.toMillis(getTotalNanos()))
+                .append(" ms]").toString();
+    }
+}
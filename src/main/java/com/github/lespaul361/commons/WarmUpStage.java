@@ -0,0 +1,33 @@
+package com.github.lespaul361.commons;
+
+/**
+ * The steps of {@link DisplayNotification#warmUp()}, in the order they run
+ *
+ * @author Charles Hamilton
+ */
+public enum WarmUpStage {
+    /**
+     * Loads the AWT toolkit and starts the event dispatch thread
+     */
+    Toolkit,
+    /**
+     * Builds the preset themes and their fonts
+     */
+    Themes,
+    /**
+     * Decodes the message type icons
+     */
+    Icons,
+    /**
+     * Decodes the default notification sound
+     */
+    Sounds,
+    /**
+     * Loads the sound system and opens the mixer's output line
+     */
+    Audio,
+    /**
+     * Lets the renderer create its windows
+     */
+    Windows
+}
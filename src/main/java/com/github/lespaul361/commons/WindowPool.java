@@ -0,0 +1,436 @@
+package com.github.lespaul361.commons;
+
+import com.notification.NotificationListener;
+import com.notification.types.IconNotification;
+import com.notification.types.TextNotification;
+import com.notification.types.WindowNotification;
+import com.theme.TextTheme;
+import com.theme.ThemePackage;
+import com.theme.ThemePackagePresets;
+import com.theme.WindowTheme;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.swing.Icon;
+import javax.swing.JWindow;
+import javax.swing.Timer;
+
+/**
+ * Keeps notification windows after they are hidden so the next notification
+ * reuses one instead of creating a new native window. JCommunique disposes a
+ * window when it is hidden, so the windows handed out here are subclasses
+ * that only make themselves invisible and then come back to the pool.
+ * <p>
+ * Windows are pooled per theme, with separate windows for notifications with
+ * and without an icon. At most <code>maxSize</code> hidden windows are kept
+ * and a window that has not been used for <code>idleMillis</code> is
+ * disposed.
+ * <p>
+ * Like the JCommunique managers the pool is not thread safe and must only be
+ * used on the event dispatch thread.
+ *
+ * @author Charles Hamilton
+ */
+public class WindowPool {
+
+    private final int maxSize;
+    private final long idleNanos;
+    private final Map<PoolKey, ArrayDeque<Idle>> idle = new HashMap<>();
+    private final Timer evictTimer;
+    private ThemePackage defaultTheme = null;
+    private int idleCount = 0;
+    private long createdCount = 0;
+    private long reusedCount = 0;
+
+    /**
+     * Constructs a new <code>WindowPool</code>
+     *
+     * @param maxSize the most hidden windows kept for reuse
+     * @param idleMillis how long a hidden window is kept before it is
+     * disposed
+     */
+    public WindowPool(int maxSize, long idleMillis) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize cannot be negative");
+        }
+        if (idleMillis <= 0) {
+            throw new IllegalArgumentException("idleMillis must be positive");
+        }
+        this.maxSize = maxSize;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        int delay = (int) Math.min(Integer.MAX_VALUE, Math.max(1, idleMillis / 2));
+        evictTimer = new Timer(delay, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                evictIdle();
+            }
+        });
+    }
+
+    /**
+     * Creates windows ahead of time so the first notifications do not have
+     * to. The windows get their native peers now but are not shown.
+     *
+     * @param themePackage the theme of the windows, or <code>null</code> for
+     * the JCommunique default
+     * @param withIcon whether the windows are for notifications with an icon
+     * @param count how many windows to have ready
+     */
+    public void warm(ThemePackage themePackage, boolean withIcon, int count) {
+        PoolKey key = new PoolKey(resolveTheme(themePackage), withIcon);
+        ArrayDeque<Idle> windows = idle.get(key);
+        int have = windows == null ? 0 : windows.size();
+        for (int i = have; i < count && idleCount < maxSize; i++) {
+            Pooled window = create(key);
+            window.realize();
+            release(window);
+        }
+    }
+
+    /**
+     * Gets a window showing the content, reusing a hidden one when there is
+     * one
+     *
+     * @param themePackage the theme, or <code>null</code> for the
+     * JCommunique default
+     * @param title the title
+     * @param subtitle the subtitle
+     * @param icon the icon, or <code>null</code> for a text only window
+     * @return the window
+     */
+    WindowNotification acquire(ThemePackage themePackage, String title,
+            String subtitle, Icon icon) {
+        PoolKey key = new PoolKey(resolveTheme(themePackage), icon != null);
+        Pooled window = null;
+        ArrayDeque<Idle> windows = idle.get(key);
+        if (windows != null) {
+            Idle last = windows.pollLast();
+            if (windows.isEmpty()) {
+                idle.remove(key);
+            }
+            if (last != null) {
+                idleCount--;
+                window = last.window;
+                reusedCount++;
+            }
+        }
+        if (window == null) {
+            window = create(key);
+        }
+        TextNotification text = window.getNotification();
+        text.setTitle(title);
+        text.setSubtitle(subtitle);
+        if (icon != null) {
+            ((IconNotification) text).setIcon(icon);
+        }
+        text.setCloseOnClick(true);
+        return text;
+    }
+
+    /**
+     * Gets the number of hidden windows ready for reuse
+     *
+     * @return the number of idle windows
+     */
+    public int getIdleCount() {
+        return idleCount;
+    }
+
+    /**
+     * Gets the most hidden windows kept for reuse
+     *
+     * @return the pool size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the number of windows created by this pool
+     *
+     * @return the number of created windows
+     */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * Gets the number of times a hidden window was reused
+     *
+     * @return the number of reused windows
+     */
+    public long getReusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * Disposes the windows that have been hidden longer than the idle time
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        Iterator<ArrayDeque<Idle>> it = idle.values().iterator();
+        while (it.hasNext()) {
+            ArrayDeque<Idle> windows = it.next();
+            // the oldest are at the front
+            while (!windows.isEmpty()
+                    && now - windows.peekFirst().since >= idleNanos) {
+                windows.pollFirst().window.dispose();
+                idleCount--;
+            }
+            if (windows.isEmpty()) {
+                it.remove();
+            }
+        }
+        if (idleCount == 0) {
+            evictTimer.stop();
+        }
+    }
+
+    /**
+     * Disposes every hidden window
+     */
+    public void clear() {
+        for (ArrayDeque<Idle> windows : idle.values()) {
+            for (Idle entry : windows) {
+                entry.window.dispose();
+            }
+        }
+        idle.clear();
+        idleCount = 0;
+        evictTimer.stop();
+    }
+
+    /**
+     * Takes back a window that has been hidden
+     */
+    private void release(Pooled window) {
+        window.reset();
+        if (idleCount >= maxSize) {
+            window.dispose();
+            return;
+        }
+        PoolKey key = window.getKey();
+        ArrayDeque<Idle> windows = idle.get(key);
+        if (windows == null) {
+            windows = new ArrayDeque<>();
+            idle.put(key, windows);
+        }
+        windows.addLast(new Idle(window, System.nanoTime()));
+        idleCount++;
+        if (!evictTimer.isRunning()) {
+            evictTimer.start();
+        }
+    }
+
+    private Pooled create(PoolKey key) {
+        createdCount++;
+        Pooled pooled;
+        if (key.withIcon) {
+            pooled = new PooledIconNotification(this, key).pooled;
+        } else {
+            pooled = new PooledTextNotification(this, key).pooled;
+        }
+        TextNotification window = pooled.getNotification();
+        window.setWindowTheme(key.themePackage.getTheme(WindowTheme.class));
+        window.setTextTheme(key.themePackage.getTheme(TextTheme.class));
+        return pooled;
+    }
+
+    private ThemePackage resolveTheme(ThemePackage themePackage) {
+        if (themePackage != null) {
+            return themePackage;
+        }
+        if (defaultTheme == null) {
+            defaultTheme = ThemePackagePresets.cleanLight();
+        }
+        return defaultTheme;
+    }
+
+    /**
+     * The pool's side of a window it made: the listeners added while in use,
+     * hiding without disposing and handing the window back. Shared by the
+     * text and icon windows, which only forward to it.
+     */
+    private static final class Pooled {
+
+        private final WindowPool pool;
+        private final PoolKey key;
+        private final TextNotification notification;
+        private final JWindow window;
+        private final List<NotificationListener> listeners = new ArrayList<>();
+
+        Pooled(WindowPool pool, PoolKey key, TextNotification notification,
+                JWindow window) {
+            this.pool = pool;
+            this.key = key;
+            this.notification = notification;
+            this.window = window;
+        }
+
+        PoolKey getKey() {
+            return key;
+        }
+
+        TextNotification getNotification() {
+            return notification;
+        }
+
+        /**
+         * Remembers a listener to remove when the window comes back
+         */
+        void added(NotificationListener listener) {
+            listeners.add(listener);
+        }
+
+        /**
+         * Makes the window invisible instead of disposing it
+         *
+         * @return <code>false</code> if it was already hidden and back in the
+         * pool
+         */
+        boolean hide() {
+            if (!notification.isShown()) {
+                return false;
+            }
+            window.setVisible(false);
+            return true;
+        }
+
+        /**
+         * Hands the window back once the hidden listeners have run
+         */
+        void hidden() {
+            pool.release(this);
+        }
+
+        /**
+         * Creates the native window without showing it
+         */
+        void realize() {
+            window.addNotify();
+        }
+
+        /**
+         * Removes the listeners added while it was in use
+         */
+        void reset() {
+            for (NotificationListener listener : listeners) {
+                notification.removeNotificationListener(listener);
+            }
+            listeners.clear();
+            if (notification instanceof IconNotification) {
+                // do not hold on to the last icon while idle
+                ((IconNotification) notification).setIcon(null);
+            }
+        }
+
+        /**
+         * Releases the native window for good
+         */
+        void dispose() {
+            window.dispose();
+        }
+    }
+
+    /**
+     * A text window that goes back to the pool when hidden
+     */
+    private static final class PooledTextNotification extends TextNotification {
+
+        private final Pooled pooled;
+
+        PooledTextNotification(WindowPool pool, PoolKey key) {
+            pooled = new Pooled(pool, key, this, getWindow());
+        }
+
+        @Override
+        public void addNotificationListener(NotificationListener listener) {
+            super.addNotificationListener(listener);
+            pooled.added(listener);
+        }
+
+        @Override
+        public void hide() {
+            if (pooled.hide()) {
+                fireListeners(HIDDEN);
+                pooled.hidden();
+            }
+        }
+    }
+
+    /**
+     * An icon window that goes back to the pool when hidden
+     */
+    private static final class PooledIconNotification extends IconNotification {
+
+        private final Pooled pooled;
+
+        PooledIconNotification(WindowPool pool, PoolKey key) {
+            pooled = new Pooled(pool, key, this, getWindow());
+        }
+
+        @Override
+        public void addNotificationListener(NotificationListener listener) {
+            super.addNotificationListener(listener);
+            pooled.added(listener);
+        }
+
+        @Override
+        public void hide() {
+            if (pooled.hide()) {
+                fireListeners(HIDDEN);
+                pooled.hidden();
+            }
+        }
+    }
+
+    /**
+     * A hidden window and when it was hidden
+     */
+    private static final class Idle {
+
+        private final Pooled window;
+        private final long since;
+
+        Idle(Pooled window, long since) {
+            this.window = window;
+            this.since = since;
+        }
+    }
+
+    /**
+     * Identifies a theme and window type. Themes are compared by identity
+     * since <code>ThemePackage</code> has no equality of its own.
+     */
+    private static final class PoolKey {
+
+        private final ThemePackage themePackage;
+        private final boolean withIcon;
+
+        PoolKey(ThemePackage themePackage, boolean withIcon) {
+            this.themePackage = themePackage;
+            this.withIcon = withIcon;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey) obj;
+            return themePackage == other.themePackage && withIcon == other.withIcon;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(themePackage)
+                    + (withIcon ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.lespaul361.commons;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class DispatchQueueTest {
+
+    /**
+     * Collects worker tasks so the test decides when they run
+     */
+    private static class ManualExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    /**
+     * Test of execute method with the DropOldest policy, of class
+     * DispatchQueue.
+     */
+    @Test
+    public void testDropOldest() {
+        ManualExecutor executor = new ManualExecutor();
+        DispatchQueue queue = new DispatchQueue(executor, 1, 2,
+                RejectionPolicy.DropOldest);
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int n = i;
+            queue.execute(() -> ran.add(n));
+        }
+        assertEquals(2, queue.getQueueSize());
+        assertEquals(3, queue.getRejectedCount());
+        executor.runAll();
+        assertEquals(2, ran.size());
+        assertEquals(Integer.valueOf(3), ran.get(0));
+        assertEquals(Integer.valueOf(4), ran.get(1));
+    }
+
+    /**
+     * Test of execute method with the DropNewest policy, of class
+     * DispatchQueue.
+     */
+    @Test
+    public void testDropNewest() {
+        ManualExecutor executor = new ManualExecutor();
+        DispatchQueue queue = new DispatchQueue(executor, 1, 2,
+                RejectionPolicy.DropNewest);
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final int n = i;
+            queue.execute(() -> ran.add(n));
+        }
+        executor.runAll();
+        assertEquals(2, ran.size());
+        assertEquals(Integer.valueOf(0), ran.get(0));
+        assertEquals(Integer.valueOf(1), ran.get(1));
+        assertEquals(0, queue.getQueueSize());
+    }
+
+    /**
+     * Test that a long queue is run in several hand-offs.
+     */
+    @Test
+    public void testBatches() {
+        ManualExecutor executor = new ManualExecutor();
+        DispatchQueue queue = new DispatchQueue(executor, 1, 100,
+                RejectionPolicy.Block);
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final int n = i;
+            queue.execute(() -> ran.add(n));
+        }
+        assertEquals(1, executor.tasks.size());
+        executor.runAll();
+        assertEquals(40, ran.size());
+        assertEquals(0, queue.getRejectedCount());
+    }
+
+    /**
+     * Test that a full queue drops the least important task.
+     */
+    @Test
+    public void testDropsLowestPriority() {
+        ManualExecutor executor = new ManualExecutor();
+        DispatchQueue queue = new DispatchQueue(executor, 1, 2,
+                RejectionPolicy.DropNewest);
+        StringBuilder ran = new StringBuilder();
+        queue.execute(() -> ran.append("L"), NotificationPriority.Low);
+        queue.execute(() -> ran.append("N"), NotificationPriority.Normal);
+        queue.execute(() -> ran.append("C"), NotificationPriority.Critical);
+        queue.execute(() -> ran.append("n"), NotificationPriority.Normal);
+        executor.runAll();
+        assertEquals("CN", ran.toString());
+        assertEquals(2, queue.getRejectedCount());
+    }
+
+    /**
+     * Test that the Block policy does not wait on the event dispatch thread.
+     */
+    @Test(timeout = 10000)
+    public void testBlockOnDispatchThread() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        DispatchQueue queue = new DispatchQueue(executor, 1, 1,
+                RejectionPolicy.Block);
+        StringBuilder ran = new StringBuilder();
+        EventQueue.invokeAndWait(() -> {
+            queue.execute(() -> ran.append("1"));
+            queue.execute(() -> ran.append("2"));
+        });
+        assertEquals(1, queue.getRejectedCount());
+        executor.runAll();
+        assertEquals("2", ran.toString());
+    }
+
+    /**
+     * Test that dropped tasks are told, of class DispatchQueue.
+     */
+    @Test
+    public void testRejectable() {
+        ManualExecutor executor = new ManualExecutor();
+        DispatchQueue queue = new DispatchQueue(executor, 1, 2,
+                RejectionPolicy.DropOldest);
+        StringBuilder ran = new StringBuilder();
+        StringBuilder rejected = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            final int n = i;
+            queue.execute(new DispatchQueue.Rejectable() {
+                @Override
+                public void run() {
+                    ran.append(n);
+                }
+
+                @Override
+                public void rejected() {
+                    rejected.append(n);
+                }
+            });
+        }
+        executor.runAll();
+        assertEquals("23", ran.toString());
+        assertEquals("01", rejected.toString());
+    }
+}
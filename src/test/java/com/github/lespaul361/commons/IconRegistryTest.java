@@ -0,0 +1,49 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+import java.awt.image.BufferedImage;
+import javax.swing.ImageIcon;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class IconRegistryTest {
+
+    /**
+     * Test of getIcon method, of class IconRegistry.
+     */
+    @Test
+    public void testGetIcon() {
+        IconRegistry registry = new IconRegistry();
+        for (MessageIconType type : MessageIconType.values()) {
+            if (type == MessageIconType.None) {
+                assertNull(registry.getIcon(type));
+            } else {
+                ImageIcon icon = registry.getIcon(type);
+                assertNotNull(type.name(), icon);
+                assertSame(icon, registry.getIcon(type));
+                ImageIcon doubled = registry.getIcon(type, 2.0);
+                assertEquals(icon.getIconWidth() * 2, doubled.getIconWidth());
+            }
+        }
+    }
+
+    /**
+     * Test of register method, of class IconRegistry.
+     */
+    @Test
+    public void testRegister() {
+        IconRegistry registry = new IconRegistry();
+        registry.register("custom", new BufferedImage(20, 10,
+                BufferedImage.TYPE_INT_ARGB));
+        assertEquals(20, registry.getIcon("custom").getIconWidth());
+        assertEquals(30, registry.getIcon("custom", 1.4).getIconWidth());
+        assertNull(registry.getIcon("missing"));
+    }
+}
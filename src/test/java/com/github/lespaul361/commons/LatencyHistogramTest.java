@@ -0,0 +1,48 @@
+package com.github.lespaul361.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Test of getPercentile method, of class LatencyHistogram.
+     */
+    @Test
+    public void testGetPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMax());
+        assertEquals(500500, histogram.getMean(), 0.001);
+        long p50 = histogram.getPercentile(50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(p50 >= 500000 && p50 <= 500000 * 1.13);
+        assertTrue(p99 >= 990000 && p99 <= 1000000);
+        histogram.reset();
+        assertEquals(0, histogram.getPercentile(99));
+    }
+
+    /**
+     * Test that every bucket holds the values below its upper bound, of class
+     * LatencyHistogram.
+     */
+    @Test
+    public void testBuckets() {
+        for (long v = 0; v < 100000; v += 7) {
+            int bucket = LatencyHistogram.bucket(v);
+            assertTrue(v <= LatencyHistogram.upperBound(bucket));
+            if (bucket > 0) {
+                assertTrue(v > LatencyHistogram.upperBound(bucket - 1));
+            }
+        }
+        assertTrue(LatencyHistogram.upperBound(LatencyHistogram.bucket(Long.MAX_VALUE)) > 0);
+    }
+}
@@ -0,0 +1,288 @@
+package com.github.lespaul361.commons;
+
+import com.utils.Time;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationEngineTest {
+
+    private final List<Runnable> uiTasks = new ArrayList<>();
+    private NotificationEngine engine;
+
+    /**
+     * Holds window work instead of running it so no display is needed
+     */
+    private final Executor heldExecutor = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            uiTasks.add(command);
+        }
+    };
+
+    @After
+    public void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    private static NotificationRequest request(String title, String subtitle,
+            String key) {
+        return new NotificationRequest(title, subtitle, null, null, null, null,
+                null, null, key, null);
+    }
+
+    /**
+     * Test that repeated notifications are merged, of class
+     * NotificationEngine.
+     */
+    @Test
+    public void testCoalesce() {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .coalesceWindow(60000).build();
+        for (int i = 0; i < 5; i++) {
+            engine.show(request("Server down", "db1", null));
+        }
+        engine.show(request("Server down", "db2", null));
+        engine.show(request("Deploy", "10%", "deploy"));
+        engine.show(request("Deploy", "20%", "deploy"));
+        assertEquals(3, engine.getPendingCount());
+    }
+
+    /**
+     * Test that nothing is merged when the window is 0, of class
+     * NotificationEngine.
+     */
+    @Test
+    public void testCoalesceDisabled() {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .coalesceWindow(0).build();
+        for (int i = 0; i < 5; i++) {
+            engine.show(request("Server down", "db1", null));
+        }
+        assertEquals(5, engine.getPendingCount());
+    }
+
+    /**
+     * Test that merging into a notification that is not on screen yet does
+     * not start its timer, of class NotificationEngine.
+     */
+    @Test
+    public void testCoalesceWaiting() throws InterruptedException {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .maxVisible(1).build();
+        engine.show(request("Build", "", null));
+        NotificationHandle waiting = engine.show(request("Deploy", "", "d"));
+        engine.show(new NotificationRequest("Deploy", "", null,
+                Time.milliseconds(1), null, null, null, null, "d", null));
+        Thread.sleep(100);
+        assertFalse(waiting.isClosed());
+    }
+
+    /**
+     * Test of the Drop overflow policy, of class NotificationEngine.
+     */
+    @Test
+    public void testOverflowDrop() {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .maxVisible(2).overflowPolicy(OverflowPolicy.Drop).build();
+        for (int i = 0; i < 5; i++) {
+            engine.show(request("Alert " + i, "", null));
+        }
+        assertEquals(2, engine.getVisibleCount());
+        assertEquals(3, engine.getDroppedCount());
+        assertEquals(2, engine.getPendingCount());
+    }
+
+    /**
+     * Test of the Queue overflow policy and the rate limit, of class
+     * NotificationEngine.
+     */
+    @Test
+    public void testOverflowQueue() {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .ratePerSecond(0.001).burst(3).build();
+        for (int i = 0; i < 5; i++) {
+            engine.show(request("Alert " + i, "", null));
+        }
+        assertEquals(3, engine.getVisibleCount());
+        assertEquals(0, engine.getDroppedCount());
+        assertEquals(5, engine.getPendingCount());
+    }
+
+    /**
+     * Test that a batch is opened in one event dispatch thread task, of class
+     * NotificationEngine.
+     */
+    @Test
+    public void testShowAll() {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .build();
+        List<NotificationRequest> batch = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            batch.add(request("Build " + i, "done", null));
+        }
+        engine.showAll(batch, BatchMode.Stacked);
+        assertEquals(4, engine.getVisibleCount());
+        assertEquals(1, engine.getPendingCount());
+
+        engine.showAll(batch, BatchMode.Grouped);
+        assertEquals(5, engine.getVisibleCount());
+        assertEquals(2, engine.getPendingCount());
+    }
+
+    /**
+     * Test that handle futures follow the notification, of class
+     * NotificationEngine.
+     */
+    @Test
+    public void testHandle() {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .maxVisible(1).overflowPolicy(OverflowPolicy.Drop).build();
+        NotificationHandle first = engine.show(request("Build", "started", "b"));
+        assertSame(first, engine.show(request("Build", "running", "b")));
+        NotificationHandle dropped = engine.show(request("Other", "", null));
+        assertTrue(dropped.shown().isCancelled());
+        assertTrue(dropped.dismissed().isDone());
+
+        assertFalse(first.dismissed().isDone());
+        first.close();
+        assertTrue(first.isClosed());
+        assertSame(first, first.dismissed().join());
+        assertTrue(first.clicked().isCancelled());
+        assertEquals(0, engine.getVisibleCount());
+    }
+
+    /**
+     * Test that a batch only plays the sound of a notification it opens, of
+     * class NotificationEngine.
+     */
+    @Test
+    public void testShowAllSound() {
+        RecordingRenderer renderer = new RecordingRenderer();
+        engine = new NotificationEngine.Builder().renderer(renderer)
+                .maxVisible(1).build();
+        DecodedSound sound = new DecodedSound(SoundMixer.FORMAT, new byte[4]);
+        engine.showAll(Arrays.asList(request("Build", "", null),
+                new NotificationRequest("Deploy", "", null, null, sound, null,
+                        null, null, null, NotificationPriority.High)),
+                BatchMode.Stacked);
+        assertEquals(1, renderer.getVisible().size());
+        assertEquals(0, renderer.getSoundCount());
+    }
+
+    /**
+     * Test that a notification whose window task is dropped gives its place
+     * back, of class NotificationEngine.
+     */
+    @Test
+    public void testDispatchRejected() {
+        engine = new NotificationEngine.Builder().uiExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException();
+            }
+        }).maxVisible(1).build();
+        for (int i = 0; i < 3; i++) {
+            NotificationHandle handle = engine.show(request("Alert " + i, "", null));
+            assertTrue(handle.shown().isCancelled());
+            assertTrue(handle.isClosed());
+        }
+        assertEquals(0, engine.getVisibleCount());
+        assertEquals(3, engine.getRejectedCount());
+    }
+
+    /**
+     * Test that sounds a headless renderer cannot play are not counted as
+     * failures, of class NotificationEngine.
+     */
+    @Test
+    public void testHeadlessSound() {
+        NotificationStats stats = new NotificationStats();
+        engine = new NotificationEngine.Builder().renderer(new HeadlessRenderer())
+                .metrics(stats).build();
+        engine.show(new NotificationRequest("Build", "done", null, null,
+                new DecodedSound(SoundMixer.FORMAT, new byte[4]), null, null,
+                null, null, null));
+        assertEquals(1, stats.getShownCount());
+        assertEquals(0, stats.getSoundFailureCount());
+    }
+
+    /**
+     * Test that handle futures are completed without holding the engine
+     * lock, of class NotificationEngine.
+     */
+    @Test
+    public void testCallbacksOutsideLock() {
+        engine = new NotificationEngine.Builder().renderer(new RecordingRenderer())
+                .maxVisible(1).build();
+        NotificationHandle first = engine.show(request("Build", "", null));
+        NotificationHandle second = engine.show(request("Deploy", "", null));
+        List<Boolean> unlocked = new ArrayList<>();
+        second.shown().thenRun(() -> {
+            // another thread asking the engine must not have to wait for us
+            Thread other = new Thread(() -> engine.getVisibleCount());
+            other.start();
+            try {
+                other.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            unlocked.add(!other.isAlive());
+        });
+        first.close();
+        assertEquals(Arrays.asList(true), unlocked);
+    }
+
+    /**
+     * Test that quick updates share one repaint, of class NotificationEngine.
+     */
+    @Test
+    public void testUpdateRepaintsOnce() {
+        engine = new NotificationEngine.Builder().uiExecutor(heldExecutor)
+                .build();
+        NotificationHandle handle = engine.show(request("Deploy", "0%", null));
+        int before = uiTasks.size();
+        for (int i = 1; i <= 10; i++) {
+            handle.update(null, (i * 10) + "%");
+        }
+        assertEquals(before + 1, uiTasks.size());
+    }
+
+    /**
+     * Test the whole pipeline with a recording renderer, of class
+     * NotificationEngine.
+     */
+    @Test
+    public void testRecordingRenderer() {
+        RecordingRenderer renderer = new RecordingRenderer();
+        NotificationStats stats = new NotificationStats();
+        engine = new NotificationEngine.Builder().renderer(renderer)
+                .metrics(stats).build();
+        NotificationHandle handle = engine.show(request("Build", "done", null));
+        assertSame(handle, handle.shown().getNow(null));
+        assertEquals(1, renderer.getVisible().size());
+        assertEquals("Build", renderer.getShown().get(0).getTitle());
+
+        assertTrue(renderer.click(handle));
+        assertSame(handle, handle.clicked().getNow(null));
+        assertTrue(handle.dismissed().isDone());
+        assertEquals(0, renderer.getVisible().size());
+        assertEquals(0, engine.getVisibleCount());
+        assertEquals(1, stats.getSubmittedCount());
+        assertEquals(1, stats.getShownCount());
+    }
+}
@@ -0,0 +1,121 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+import com.github.lespaul361.commons.DisplayNotification.NotificationBuilder;
+import java.io.File;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test that outcomes are journaled and kept after the journal is opened
+     * again.
+     */
+    @Test
+    public void testOutcomes() throws Exception {
+        File dir = folder.newFolder("journal");
+        NotificationJournal journal = NotificationJournal.open(dir);
+        RecordingRenderer renderer = new RecordingRenderer();
+        NotificationEngine engine = new NotificationEngine.Builder()
+                .renderer(renderer).journal(journal).build();
+        new NotificationBuilder("Disk", "almost full")
+                .icon(MessageIconType.Warning).showNotification(engine);
+        new NotificationBuilder("Build", "done").showNotification(engine);
+        assertTrue(renderer.click(renderer.getShown().get(1)));
+        assertTrue(journal.flush(5000));
+        List<JournalEntry> entries = journal.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals("Disk", entries.get(0).getTitle());
+        assertEquals("Warning", entries.get(0).getIcon());
+        assertEquals("CleanDark", entries.get(0).getTheme());
+        assertEquals(NotificationOutcome.Shown, entries.get(0).getOutcome());
+        assertEquals(NotificationOutcome.Clicked, entries.get(1).getOutcome());
+        engine.shutdown();
+        journal.close();
+
+        journal = NotificationJournal.open(dir);
+        entries = journal.getEntries();
+        assertEquals(2, entries.size());
+        RecordingRenderer replayed = new RecordingRenderer();
+        engine = new NotificationEngine.Builder().renderer(replayed).build();
+        // the clicked one has been seen already
+        assertEquals(1, journal.replay(engine, 0, BatchMode.Stacked));
+        assertEquals("Disk", replayed.getShown().get(0).getTitle());
+        engine.shutdown();
+        journal.close();
+    }
+
+    /**
+     * Test that a compacted segment left under its temporary name is kept
+     * when the journal is opened again.
+     */
+    @Test
+    public void testUnfinishedCompaction() throws Exception {
+        File dir = folder.newFolder("journal");
+        NotificationJournal journal = NotificationJournal.open(dir);
+        journal.merged(new NotificationRequest("Build", "done", null, null, null,
+                null, null, null, null, null));
+        assertTrue(journal.flush(5000));
+        journal.close();
+        // stopped after the old segment was removed but before the new one
+        // was moved into place
+        File segment = new File(dir, "segment-0000000001.journal");
+        File tmp = new File(dir, segment.getName() + ".tmp");
+        assertTrue(segment.renameTo(tmp));
+        assertTrue(new File(dir, "segment-old.journal").createNewFile());
+
+        journal = NotificationJournal.open(dir);
+        List<JournalEntry> entries = journal.getEntries();
+        assertEquals(1, entries.size());
+        assertEquals("Build", entries.get(0).getTitle());
+        assertTrue(segment.exists());
+        assertFalse(tmp.exists());
+        journal.close();
+    }
+
+    /**
+     * Test that full segments are rotated and the old ones compacted.
+     */
+    @Test
+    public void testCompaction() throws Exception {
+        NotificationJournal journal = NotificationJournal.open(
+                folder.newFolder("small"), 64 * 1024, 4);
+        StringBuilder subtitle = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            subtitle.append('x');
+        }
+        int count = 3000;
+        for (int i = 0; i < count; i++) {
+            journal.merged(new NotificationRequest("Job " + i, subtitle.toString(),
+                    null, null, null, null, null, null, null, null));
+            if (i % 1000 == 999) {
+                assertTrue(journal.flush(5000));
+            }
+        }
+        assertTrue(journal.flush(5000));
+        assertEquals(0, journal.getLostCount());
+        assertTrue(journal.getCompactionCount() > 0);
+        assertTrue(journal.getSegmentCount() <= 4);
+        List<JournalEntry> entries = journal.getEntries();
+        assertTrue(entries.size() < count);
+        assertEquals("Job " + (count - 1), entries.get(entries.size() - 1).getTitle());
+        for (int i = 1; i < entries.size(); i++) {
+            // compaction drops the oldest, never one in between
+            assertEquals(entries.get(i - 1).getId() + 1, entries.get(i).getId());
+        }
+        journal.close();
+    }
+}
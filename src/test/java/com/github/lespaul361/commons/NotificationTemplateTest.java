@@ -0,0 +1,110 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+import com.github.lespaul361.commons.DisplayNotification.NotificationBuilder;
+import com.github.lespaul361.commons.DisplayNotification.ThemePackagePresets;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class NotificationTemplateTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        TemplateRegistry.getDefault().unregister("jobDone");
+    }
+
+    /**
+     * Test of with method, of class NotificationTemplate.
+     */
+    @Test
+    public void testFormat() {
+        NotificationTemplate template = new NotificationBuilder(
+                "Job {job} done", "{job} took {seconds} s {{ok}").sound((String) null)
+                .compile();
+        assertEquals(Arrays.asList("job", "seconds"), template.getPlaceholders());
+        NotificationTemplate.Instance instance = template.with("job", 42)
+                .with("seconds", 1.5);
+        assertEquals("Job 42 done", instance.getTitle());
+        assertEquals("42 took 1.5 s {ok}", instance.getSubtitle());
+        assertEquals("Job  done", template.with("seconds", 1).getTitle());
+    }
+
+    /**
+     * Test of bad placeholders, of class NotificationTemplate.
+     */
+    @Test
+    public void testBadPlaceholders() {
+        for (String title : new String[]{"Job {job", "Job {}"}) {
+            try {
+                new NotificationBuilder(title, null).compile();
+                throw new AssertionError("compiled " + title);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        try {
+            new NotificationBuilder("Job {job}", null).sound((String) null)
+                    .compile().with("name", "x");
+            throw new AssertionError("filled in an unknown placeholder");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test of a sound that is not in its library, of class
+     * NotificationTemplate.
+     */
+    @Test
+    public void testUnknownSound() throws Exception {
+        SoundLibrary library = SoundLibrary.open(folder.newFolder("sounds"));
+        try {
+            new NotificationBuilder("Job {job}", null).sound(library, "missing")
+                    .compile();
+            throw new AssertionError("compiled a missing sound");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test of showing a registered template, of class NotificationTemplate.
+     */
+    @Test
+    public void testShow() {
+        RecordingRenderer renderer = new RecordingRenderer();
+        NotificationEngine engine = new NotificationEngine.Builder()
+                .renderer(renderer).coalesceWindow(0).build();
+        new NotificationBuilder("Job {job} done", "Exit code {code}")
+                .icon(MessageIconType.Error).theme(ThemePackagePresets.Aqua)
+                .sound((String) null).register("jobDone");
+        DisplayNotification.template("jobDone").with("job", "backup")
+                .with("code", 0).show(engine);
+        DisplayNotification.template("jobDone").with("job", "index")
+                .with("code", 3).show(engine);
+        List<NotificationHandle> shown = renderer.getShown();
+        assertEquals(2, shown.size());
+        assertEquals("Job backup done", shown.get(0).getTitle());
+        assertEquals("Exit code 3", shown.get(1).getSubtitle());
+        // the resources are looked up once and shared
+        assertSame(shown.get(0).getIcon(), shown.get(1).getIcon());
+        assertSame(ThemeRegistry.getDefault().getTheme(ThemePackagePresets.Aqua),
+                shown.get(1).getThemePackage());
+        assertEquals(NotificationPriority.forIconType(MessageIconType.Error),
+                shown.get(0).getPriority());
+        engine.shutdown();
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.lespaul361.commons;
+
+import com.github.lespaul361.commons.DisplayNotification.MessageIconType;
+import com.github.lespaul361.commons.DisplayNotification.NotificationBuilder;
+import com.github.lespaul361.commons.DisplayNotification.ThemePackagePresets;
+import com.utils.Time;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.ImageIcon;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class NotifierDaemonTest {
+
+    /**
+     * Test that a builder survives the wire format.
+     */
+    @Test
+    public void testWireFormat() {
+        NotificationBuilder builder = new NotificationBuilder("Build\tfailed",
+                "line one\nline two \\ three")
+                .time(Time.infinite())
+                .icon(MessageIconType.Error)
+                .theme(ThemePackagePresets.Aqua)
+                .sound((String) null)
+                .coalesceKey("build")
+                .priority(NotificationPriority.High);
+        String line = builder.toWire();
+        assertEquals(-1, line.indexOf('\n'));
+        assertEquals(line, NotifierProtocol.decode(line).toWire());
+    }
+
+    /**
+     * Test of objects that cannot be sent.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testIconObject() {
+        new NotificationBuilder("a", "b").icon(new ImageIcon()).toWire();
+    }
+
+    /**
+     * Test of sending pipelined notifications to a daemon.
+     */
+    @Test
+    public void testDaemon() throws Exception {
+        RecordingRenderer renderer = new RecordingRenderer();
+        NotificationEngine engine = new NotificationEngine.Builder()
+                .renderer(renderer).build();
+        NotifierDaemon daemon = new NotifierDaemon(engine, 0, BatchMode.Stacked);
+        daemon.start();
+        try (NotifierClient client = new NotifierClient(daemon.getPort())) {
+            for (int i = 0; i < 3; i++) {
+                client.send(new NotificationBuilder("Job " + i, "done"));
+            }
+            assertEquals(3, client.flush());
+            assertEquals(3, renderer.getShown().size());
+            assertEquals("Job 0", renderer.getShown().get(0).getTitle());
+            assertTrue(client.ping() > 0);
+
+            assertFalse(client.post(new NotificationBuilder(null, "no title")));
+            assertEquals(Arrays.asList("missing title"), client.getRejections());
+        } finally {
+            daemon.close();
+            engine.shutdown();
+        }
+        assertEquals(3, daemon.getReceivedCount());
+        assertEquals(1, daemon.getRejectedCount());
+    }
+
+    /**
+     * Test that the client reads the replies before too many pile up.
+     */
+    @Test
+    public void testMaxPending() throws Exception {
+        NotificationEngine engine = new NotificationEngine.Builder()
+                .renderer(new RecordingRenderer()).build();
+        NotifierDaemon daemon = new NotifierDaemon(engine, 0, BatchMode.Stacked);
+        daemon.start();
+        try (NotifierClient client = new NotifierClient(daemon.getPort())) {
+            int count = NotifierClient.MAX_PENDING * 3;
+            for (int i = 0; i < count; i++) {
+                client.send(new NotificationBuilder(null, "no title " + i));
+            }
+            // every full batch was sent and answered without a flush
+            assertEquals(count, daemon.getRejectedCount());
+            assertEquals(0, client.flush());
+            assertEquals(count, client.getRejections().size());
+            assertTrue(client.post(new NotificationBuilder("Job", "done")));
+            assertTrue(client.getRejections().isEmpty());
+        } finally {
+            daemon.close();
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * Test that connections over the limit are closed.
+     */
+    @Test
+    public void testMaxClients() throws Exception {
+        NotificationEngine engine = new NotificationEngine.Builder()
+                .renderer(new RecordingRenderer()).build();
+        NotifierDaemon daemon = new NotifierDaemon(engine, 0, BatchMode.Stacked);
+        daemon.start();
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < NotifierDaemon.MAX_CLIENTS; i++) {
+                sockets.add(new Socket(InetAddress.getLoopbackAddress(),
+                        daemon.getPort()));
+            }
+            Socket extra = new Socket(InetAddress.getLoopbackAddress(),
+                    daemon.getPort());
+            sockets.add(extra);
+            extra.setSoTimeout(5000);
+            assertEquals(-1, extra.getInputStream().read());
+            assertEquals(NotifierDaemon.MAX_CLIENTS, daemon.getClientCount());
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            daemon.close();
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * Test that error replies stay one per line.
+     */
+    @Test
+    public void testErrorReply() throws Exception {
+        NotificationEngine engine = new NotificationEngine.Builder()
+                .renderer(new RecordingRenderer()).build();
+        NotifierDaemon daemon = new NotifierDaemon(engine, 0, BatchMode.Stacked);
+        daemon.start();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(),
+                daemon.getPort())) {
+            Writer out = new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.UTF_8);
+            // the bad priority comes back in the message with its line break
+            out.write("N\tt=a\tp=Bad\\nValue\nPING\n");
+            out.flush();
+            BufferedReader in = new BufferedReader(new InputStreamReader(
+                    socket.getInputStream(), StandardCharsets.UTF_8));
+            String reply = in.readLine();
+            assertTrue(reply, reply.startsWith(NotifierProtocol.ERROR + " "));
+            assertTrue(NotifierProtocol.errorMessage(reply).contains("Bad\nValue"));
+            assertEquals(NotifierProtocol.PONG, in.readLine());
+
+            StringBuilder line = new StringBuilder("N\tt=");
+            for (int i = 0; i <= NotifierDaemon.MAX_LINE; i++) {
+                line.append('x');
+            }
+            out.write(line.append("\nPING\n").toString());
+            out.flush();
+            assertTrue(in.readLine().startsWith(NotifierProtocol.ERROR + " "));
+            assertEquals(NotifierProtocol.PONG, in.readLine());
+            assertEquals(2, daemon.getRejectedCount());
+        } finally {
+            daemon.close();
+            engine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.lespaul361.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class PriorityBufferTest {
+
+    /**
+     * Test of poll and pollLowest methods, of class PriorityBuffer.
+     */
+    @Test
+    public void testOrder() {
+        PriorityBuffer<String> buffer = new PriorityBuffer<>();
+        buffer.add("info1", NotificationPriority.Low);
+        buffer.add("info2", NotificationPriority.Low);
+        buffer.add("question", NotificationPriority.Normal);
+        buffer.add("error", NotificationPriority.Critical);
+        buffer.add("warning", NotificationPriority.High);
+        assertEquals(5, buffer.size());
+        assertEquals(NotificationPriority.Low, buffer.lowestPriority());
+        assertEquals("info2", buffer.pollLowest(false));
+        assertEquals("error", buffer.poll());
+        assertEquals("warning", buffer.poll());
+        assertEquals("question", buffer.poll());
+        assertEquals("info1", buffer.poll());
+        assertNull(buffer.poll());
+        assertNull(buffer.lowestPriority());
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.lespaul361.commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sound.sampled.AudioFormat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class SoundCacheTest {
+
+    /**
+     * Test of getResource method, of class SoundCache.
+     */
+    @Test
+    public void testGetResource() throws Exception {
+        SoundCache cache = new SoundCache(SoundCache.DEFAULT_MAX_BYTES);
+        DecodedSound first = cache.getResource(DisplayNotification.DEFAULT_SOUND);
+        assertNotNull(first);
+        assertTrue(first.getSizeInBytes() > 0);
+        assertSame(first, cache.getResource(DisplayNotification.DEFAULT_SOUND));
+        assertEquals(1, cache.size());
+        assertEquals(first.getSizeInBytes(), cache.getSizeInBytes());
+    }
+
+    /**
+     * Test that the stream is closed when the sound is already cached.
+     */
+    @Test
+    public void testClosesStreamOnHit() throws Exception {
+        AudioFormat format = new AudioFormat(8000, 8, 1, true, false);
+        SoundCache cache = new SoundCache(SoundCache.DEFAULT_MAX_BYTES);
+        DecodedSound sound = new DecodedSound(format, new byte[100]);
+        cache.put("a", sound);
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream in = new ByteArrayInputStream(new byte[0]) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        assertSame(sound, cache.get("a", in));
+        assertTrue(closed.get());
+    }
+
+    /**
+     * Test that the least recently used sound is dropped first.
+     */
+    @Test
+    public void testEviction() {
+        AudioFormat format = new AudioFormat(8000, 8, 1, true, false);
+        SoundCache cache = new SoundCache(250);
+        cache.put("a", new DecodedSound(format, new byte[100]));
+        cache.put("b", new DecodedSound(format, new byte[100]));
+        assertNotNull(cache.get("a"));
+        cache.put("c", new DecodedSound(format, new byte[100]));
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(200, cache.getSizeInBytes());
+        cache.put("d", new DecodedSound(format, new byte[300]));
+        assertNull(cache.get("d"));
+        assertEquals(2, cache.size());
+    }
+}
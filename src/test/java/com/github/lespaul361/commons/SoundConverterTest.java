@@ -0,0 +1,58 @@
+package com.github.lespaul361.commons;
+
+import java.io.ByteArrayInputStream;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class SoundConverterTest {
+
+    /**
+     * Test of normalize method with 8 bit mono, of class SoundConverter.
+     */
+    @Test
+    public void testNormalizeMono() throws Exception {
+        AudioFormat format = new AudioFormat(22050, 8, 1, true, false);
+        byte[] data = new byte[22050];
+        AudioInputStream in = new AudioInputStream(
+                new ByteArrayInputStream(data), format, data.length);
+        DecodedSound sound = SoundConverter.normalize(in);
+        assertTrue(sound.getFormat().matches(SoundMixer.FORMAT));
+        assertEquals(1000, sound.getDurationMillis(), 20);
+    }
+
+    /**
+     * Test of resample method, of class SoundConverter.
+     */
+    @Test
+    public void testResample() {
+        // mono 16 bit ramp 0, 1000, 2000, 3000 at half the rate
+        byte[] data = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            data[i * 2] = (byte) (i * 1000);
+            data[i * 2 + 1] = (byte) ((i * 1000) >> 8);
+        }
+        byte[] out = SoundConverter.resample(data, 1, 22050, 44100);
+        assertEquals(8 * 4, out.length);
+        // the second frame lies half way between the first two samples
+        short left = (short) ((out[4] & 0xff) | (out[5] << 8));
+        short right = (short) ((out[6] & 0xff) | (out[7] << 8));
+        assertEquals(500, left);
+        assertEquals(500, right);
+    }
+
+    /**
+     * Test of resample method with an unknown rate, of class SoundConverter.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testResampleUnknownRate() {
+        SoundConverter.resample(new byte[8], 1, AudioSystem.NOT_SPECIFIED, 44100);
+    }
+}
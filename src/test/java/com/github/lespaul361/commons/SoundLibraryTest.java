@@ -0,0 +1,126 @@
+package com.github.lespaul361.commons;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class SoundLibraryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Test of opening a directory of sounds.
+     */
+    @Test
+    public void testDirectory() throws Exception {
+        File dir = folder.newFolder("sounds");
+        File alerts = new File(dir, "alerts");
+        alerts.mkdir();
+        byte[] wav = wav(4410);
+        Files.write(new File(dir, "ping.wav").toPath(), wav);
+        Files.write(new File(alerts, "disk.WAV").toPath(), wav);
+        Files.write(new File(dir, "readme.txt").toPath(), new byte[]{1, 2, 3});
+        SoundLibrary library = SoundLibrary.open(dir);
+        assertEquals(2, library.getNames().size());
+        assertTrue(library.contains("ping"));
+        assertTrue(library.contains("alerts/disk"));
+        assertFalse(library.contains("readme"));
+        assertFalse(library.isLong("ping"));
+        DecodedSound sound = library.getSound("ping");
+        assertTrue(SoundMixer.canMix(sound.getFormat()));
+        assertEquals(4410 * 4, sound.getSizeInBytes());
+        assertSame(sound, library.getSound("ping"));
+    }
+
+    /**
+     * Test of two sounds with the same name, of class SoundLibrary.
+     */
+    @Test
+    public void testSameName() throws Exception {
+        File dir = folder.newFolder("sounds");
+        byte[] wav = wav(4410);
+        Files.write(new File(dir, "ping.wav").toPath(), wav);
+        Files.write(new File(dir, "ping.aiff").toPath(), wav);
+        try {
+            SoundLibrary.open(dir);
+            throw new AssertionError("opened two sounds named ping");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test of opening a zip archive with stored and compressed sounds.
+     */
+    @Test
+    public void testZip() throws Exception {
+        byte[] wav = wav(4410);
+        File file = folder.newFile("sounds.zip");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file))) {
+            ZipEntry stored = new ZipEntry("stored.wav");
+            CRC32 crc = new CRC32();
+            crc.update(wav);
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(wav.length);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(wav);
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("packed/deflated.wav"));
+            out.write(wav);
+            out.closeEntry();
+        }
+        SoundLibrary library = SoundLibrary.open(file);
+        try {
+            assertEquals(2, library.getNames().size());
+            assertEquals(4410 * 4, library.getSound("stored").getSizeInBytes());
+            assertEquals(4410 * 4,
+                    library.getSound("packed/deflated").getSizeInBytes());
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1000];
+            int n;
+            try (java.io.InputStream in = library.openStream("stored")) {
+                while ((n = in.read(buffer)) > 0) {
+                    copy.write(buffer, 0, n);
+                }
+            }
+            assertEquals(wav.length, copy.size());
+        } finally {
+            library.close();
+        }
+    }
+
+    private static byte[] wav(int frames) throws Exception {
+        AudioFormat format = SoundMixer.FORMAT;
+        byte[] data = new byte[frames * format.getFrameSize()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AudioSystem.write(new AudioInputStream(new ByteArrayInputStream(data),
+                format, frames), AudioFileFormat.Type.WAVE, out);
+        return out.toByteArray();
+    }
+}
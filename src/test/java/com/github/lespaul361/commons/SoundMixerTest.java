@@ -0,0 +1,71 @@
+package com.github.lespaul361.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class SoundMixerTest {
+
+    /**
+     * Makes a sound in the mixer format holding one level
+     */
+    private static DecodedSound tone(int level, int frames) {
+        byte[] data = new byte[frames * 4];
+        for (int i = 0; i < data.length; i += 2) {
+            data[i] = (byte) level;
+            data[i + 1] = (byte) (level >> 8);
+        }
+        return new DecodedSound(SoundMixer.FORMAT, data);
+    }
+
+    /**
+     * Test that identical sounds are merged and the voice cap holds, of
+     * class SoundMixer.
+     */
+    @Test
+    public void testAddVoice() {
+        SoundMixer mixer = new SoundMixer(2);
+        DecodedSound a = tone(1000, 100);
+        synchronized (mixer) {
+            long now = System.nanoTime();
+            assertTrue(mixer.addVoice(a, NotificationPriority.Normal, now));
+            assertTrue(mixer.addVoice(a, NotificationPriority.Normal, now + 1000));
+            assertEquals(1, mixer.getActiveVoices());
+            assertEquals(1, mixer.getMergedCount());
+
+            assertTrue(mixer.addVoice(tone(1000, 100), NotificationPriority.Normal, now));
+            assertFalse(mixer.addVoice(tone(1000, 100), NotificationPriority.Normal, now));
+            assertTrue(mixer.addVoice(tone(1000, 100), NotificationPriority.Critical, now));
+            assertEquals(2, mixer.getActiveVoices());
+            assertEquals(1, mixer.getSkippedCount());
+        }
+    }
+
+    /**
+     * Test that loud sounds are limited instead of wrapping around, of class
+     * SoundMixer.
+     */
+    @Test
+    public void testMixBlockLimits() {
+        SoundMixer mixer = new SoundMixer(4);
+        int[] mix = new int[64];
+        byte[] out = new byte[128];
+        synchronized (mixer) {
+            long now = System.nanoTime();
+            mixer.addVoice(tone(30000, 16), NotificationPriority.Normal, now);
+            mixer.addVoice(tone(30000, 16), NotificationPriority.Normal, now);
+            mixer.mixBlock(mix, out);
+        }
+        short first = (short) ((out[0] & 0xff) | (out[1] << 8));
+        assertTrue(first > 30000);
+        // the voices were shorter than the block and are done
+        assertEquals(0, mixer.getActiveVoices());
+        short last = (short) ((out[126] & 0xff) | (out[127] << 8));
+        assertEquals(0, last);
+    }
+}
@@ -5,9 +5,15 @@
  */
 package com.github.lespaul361.commons;
 
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
 import org.junit.After;
 import org.junit.AfterClass;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -51,5 +57,34 @@ public class SoundPlayerTest {
         }
        
     }
+
+    /**
+     * Test of isLong method, of class SoundPlayer.
+     */
+    @Test
+    public void testIsLong() {
+        AudioFormat format = new AudioFormat(44100, 16, 2, true, false);
+        assertFalse(SoundPlayer.isLong(format, 44100));
+        assertTrue(SoundPlayer.isLong(format, 44100 * 60));
+        assertTrue(SoundPlayer.isLong(format, AudioSystem.NOT_SPECIFIED));
+    }
+
+    /**
+     * Test that playSound closes the stream, of class SoundPlayer.
+     */
+    @Test
+    public void testPlaySoundCloses() {
+        final boolean[] closed = new boolean[1];
+        InputStream in = new FilterInputStream(SoundPlayerTest.class
+                .getResourceAsStream("/Windows Notify System Generic.wav")) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+        SoundPlayer.playSound(in);
+        assertTrue(closed[0]);
+    }
     
 }
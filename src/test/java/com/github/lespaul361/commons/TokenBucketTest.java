@@ -0,0 +1,39 @@
+package com.github.lespaul361.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class TokenBucketTest {
+
+    /**
+     * Test of tryAcquire method, of class TokenBucket.
+     */
+    @Test
+    public void testTryAcquire() {
+        TokenBucket bucket = new TokenBucket(1, 3);
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+        long wait = bucket.nanosUntilAvailable();
+        assertTrue(wait > 0 && wait <= 1000000000L);
+    }
+
+    /**
+     * Test that a rate of 0 never limits, of class TokenBucket.
+     */
+    @Test
+    public void testUnlimited() {
+        TokenBucket bucket = new TokenBucket(0, 1);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(bucket.tryAcquire());
+        }
+        assertEquals(0, bucket.nanosUntilAvailable());
+    }
+}
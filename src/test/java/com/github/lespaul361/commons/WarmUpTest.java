@@ -0,0 +1,31 @@
+package com.github.lespaul361.commons;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+/**
+ *
+ * @author Charles Hamilton
+ */
+public class WarmUpTest {
+
+    /**
+     * Test of warmUp method, of class DisplayNotification.
+     */
+    @Test
+    public void testWarmUp() {
+        NotificationEngine engine = new NotificationEngine.Builder()
+                .renderer(new RecordingRenderer()).build();
+        WarmUpReport report = DisplayNotification.warmUp(engine);
+        assertTrue(report.toString(), report.isSuccessful());
+        assertNull(report.getFailure(WarmUpStage.Sounds));
+        assertTrue(report.getNanos(WarmUpStage.Toolkit) > 0);
+        assertTrue(report.getNanos(WarmUpStage.Sounds) > 0);
+        // no display or sound device for a headless renderer
+        assertEquals(0, report.getNanos(WarmUpStage.Audio));
+        assertEquals(0, report.getNanos(WarmUpStage.Windows));
+        engine.shutdown();
+    }
+}